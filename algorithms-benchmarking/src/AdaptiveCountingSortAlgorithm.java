@@ -0,0 +1,27 @@
+
+/**
+ * CountingSorts a subarray of integers if the range of values is small enough, otherwise Hybrid-QuickSorts it.
+ */
+public class AdaptiveCountingSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "AdaptiveCountingSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.adaptiveCountingSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Linear;
+	}
+
+}
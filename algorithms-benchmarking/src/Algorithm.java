@@ -3,5 +3,14 @@ public enum Algorithm {
 	QuickSort,
 	InsertionSort,
 	BubbleSort,
-	HybridQuickSort
+	HybridQuickSort,
+	ParallelQuickSort,
+	ParallelHybridQuickSort,
+	ThreeWayQuickSort,
+	RadixSort,
+	AdaptiveCountingSort,
+	NaturalMergeSort,
+	MergeSort,
+	InPlaceMergeSort,
+	PdqSort
 }
@@ -0,0 +1,13 @@
+
+/**
+ * How the extra memory a sorting algorithm needs grows with the size of the array.
+ * 
+ * Constant needs a fixed amount, e.g. InsertionSort.
+ * Logarithmic needs O(log n), e.g. the recursion stack of QuickSort.
+ * Linear needs O(n), e.g. the scratch buffer of RadixSort.
+ */
+public enum AuxiliaryMemory {
+	Constant,
+	Logarithmic,
+	Linear
+}
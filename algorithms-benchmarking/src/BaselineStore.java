@@ -0,0 +1,315 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores the trial times of a run as a baseline, and checks later runs against it for slowdowns.
+ * 
+ * The baselines are kept in directory/host/jvm/algorithm/distribution-size.txt, one time in nanoseconds per line,
+ * so times from another machine or JVM are never compared with this one's.
+ * Saving a baseline for the same algorithm, distribution and size replaces the old one.
+ * 
+ * The times are read from the Trials file testSort writes, in either format. Trials marked as excluded are left out.
+ * Run from the command line to gate a change, e.g. to partition or hybridQuickSort:
+ * 
+ *   java BaselineStore save tests/gate/HybridQuickSortTrials.csv        (before the change)
+ *   java BaselineStore compare tests/gate/HybridQuickSortTrials.csv 5 0.01  (after it)
+ * 
+ * compare exits with 1 if any size is significantly slower than its baseline by more than the threshold percentage.
+ */
+public class BaselineStore {
+	// where the baselines are kept, unless another directory is given
+	public static final String DEFAULT_DIRECTORY = "baselines";
+	// matches one "name": value field of a JSON line, with or without quotes around the value
+	private static final Pattern JSON_FIELD = Pattern.compile("\"([^\"]+)\": \"?([^\",}]*)\"?");
+
+	// the directory of this host and JVM
+	private File directory;
+
+	public BaselineStore() {
+		this(new File(DEFAULT_DIRECTORY));
+	}
+
+	/**
+	 * @param root The directory every host and JVM keeps its baselines in.
+	 */
+	public BaselineStore(File root) {
+		directory = new File(new File(root, clean(host())), clean(jvm()));
+	}
+
+
+	/**
+	 * Saves every algorithm, distribution and size in a trials file as the new baseline.
+	 * 
+	 * @param trialsFile A Trials file written by testSort.
+	 * @return The number of baselines saved.
+	 * @throws IOException If the trials cannot be read or the baselines cannot be written.
+	 */
+	public int save(File trialsFile) throws IOException {
+		LinkedHashMap<String, long[]> keyToTimes = readTrials(trialsFile);
+		for (String key : keyToTimes.keySet()) {
+			File file = baselineFile(key);
+			file.getParentFile().mkdirs();
+			try (PrintStream print = new PrintStream(file)) {
+				for (long time : keyToTimes.get(key)) {
+					print.println(time);
+				}
+			}
+		}
+		return keyToTimes.size();
+	}
+
+
+	/**
+	 * Compares every algorithm, distribution and size in a trials file with its baseline, and prints the result of each.
+	 * 
+	 * A size is a regression if the Mann-Whitney U test finds it slower with a p-value below alpha,
+	 * and its median time is slower than the baseline median by more than the threshold.
+	 * Sizes without a baseline are reported, but are not regressions.
+	 * 
+	 * @param trialsFile A Trials file written by testSort.
+	 * @param threshold The smallest slowdown of the median that counts as a regression, as a percentage.
+	 * @param alpha The p-value a slowdown must be below to be significant, e.g. 0.01.
+	 * @param out Where the results are printed.
+	 * @return The number of regressions.
+	 * @throws IOException If the trials or a baseline cannot be read.
+	 */
+	public int compare(File trialsFile, double threshold, double alpha, PrintStream out) throws IOException {
+		int regressions = 0;
+		LinkedHashMap<String, long[]> keyToTimes = readTrials(trialsFile);
+		for (String key : keyToTimes.keySet()) {
+			long[] current = keyToTimes.get(key);
+			long[] baseline = load(key);
+			if (baseline == null) {
+				out.println(key + ": no baseline");
+				continue;
+			}
+			double baselineMedian = median(baseline);
+			double currentMedian = median(current);
+			double change = (currentMedian / baselineMedian - 1) * 100;
+			double p = MannWhitneyTest.pSlower(baseline, current);
+			boolean regression = p < alpha && change > threshold;
+			if (regression) {
+				regressions++;
+			}
+			out.println(key + ": baseline median " + baselineMedian + " ns (" + baseline.length + " trials), current median "
+					+ currentMedian + " ns (" + current.length + " trials), change " + String.format("%+.2f", change) + "%, p = " + p
+					+ (regression ? ", SLOWER" : ", ok"));
+		}
+		return regressions;
+	}
+
+
+	/**
+	 * Loads the baseline times of one algorithm, distribution and size.
+	 * 
+	 * @param algorithm Name of the algorithm.
+	 * @param distribution Name of the distribution.
+	 * @param size Size of the arrays.
+	 * @return The times in nanoseconds, or null if there is no baseline.
+	 * @throws IOException If the baseline cannot be read.
+	 */
+	public long[] load(String algorithm, String distribution, int size) throws IOException {
+		return load(key(algorithm, distribution, "" + size));
+	}
+
+
+	/**
+	 * @param key The key of the baseline, made by key.
+	 * @return The times in nanoseconds, or null if there is no baseline.
+	 * @throws IOException If the baseline cannot be read.
+	 */
+	private long[] load(String key) throws IOException {
+		File file = baselineFile(key);
+		if (!file.exists()) {
+			return null;
+		}
+		ArrayList<Long> times = new ArrayList<Long>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isBlank()) {
+					times.add(Long.parseLong(line.trim()));
+				}
+			}
+		}
+		return toArray(times);
+	}
+
+
+	/**
+	 * Reads the times of a trials file, grouped by algorithm, distribution and size in the order they appear.
+	 * 
+	 * @param trialsFile A Trials file written by testSort, as CSV or JSON Lines.
+	 * @return The key of each group with its times.
+	 * @throws IOException If the file cannot be read.
+	 */
+	private LinkedHashMap<String, long[]> readTrials(File trialsFile) throws IOException {
+		LinkedHashMap<String, ArrayList<Long>> keyToTimes = new LinkedHashMap<String, ArrayList<Long>>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(trialsFile))) {
+			String[] header = null;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+				HashMap<String, String> fields = new HashMap<String, String>();
+				if (line.startsWith("{")) {
+					Matcher matcher = JSON_FIELD.matcher(line);
+					while (matcher.find()) {
+						fields.put(matcher.group(1), matcher.group(2));
+					}
+				}
+				else if (header == null) {
+					// the first line of a CSV file names its columns
+					header = line.split(", ");
+					continue;
+				}
+				else {
+					String[] values = line.split(", ");
+					for (int i=0; i<Math.min(header.length, values.length); i++) {
+						fields.put(header[i], values[i]);
+					}
+				}
+				if ("true".equals(fields.get("excluded"))) {
+					continue;
+				}
+				String key = key(fields.get("algorithm"), fields.get("distribution"), fields.get("size"));
+				ArrayList<Long> times = keyToTimes.get(key);
+				if (times == null) {
+					times = new ArrayList<Long>();
+					keyToTimes.put(key, times);
+				}
+				times.add(Long.parseLong(fields.get("nanoseconds")));
+			}
+		}
+
+		LinkedHashMap<String, long[]> keyToArray = new LinkedHashMap<String, long[]>();
+		for (String key : keyToTimes.keySet()) {
+			keyToArray.put(key, toArray(keyToTimes.get(key)));
+		}
+		return keyToArray;
+	}
+
+
+	/**
+	 * @param algorithm Name of the algorithm.
+	 * @param distribution Name of the distribution.
+	 * @param size Size of the arrays.
+	 * @return The key of their baseline, which is also its path within the directory of this host and JVM.
+	 */
+	private String key(String algorithm, String distribution, String size) {
+		return clean(algorithm) + "/" + clean(distribution) + "-" + clean(size);
+	}
+
+
+	/**
+	 * @param key The key of a baseline.
+	 * @return The file it is kept in.
+	 */
+	private File baselineFile(String key) {
+		return new File(directory, key + ".txt");
+	}
+
+
+	/**
+	 * @param times The times.
+	 * @return The median of the times.
+	 */
+	private double median(long[] times) {
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		int middle = sorted.length / 2;
+		return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle-1] + sorted[middle]) / 2.0;
+	}
+
+
+	/**
+	 * @param times A list of times.
+	 * @return The times as an array.
+	 */
+	private long[] toArray(ArrayList<Long> times) {
+		long[] array = new long[times.size()];
+		for (int i=0; i<array.length; i++) {
+			array[i] = times.get(i);
+		}
+		return array;
+	}
+
+
+	/**
+	 * @return The name of this machine, or "unknown" if it cannot be found.
+	 */
+	private static String host() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		}
+		catch (IOException error) {
+			String host = System.getenv("HOSTNAME");
+			return host == null ? "unknown" : host;
+		}
+	}
+
+
+	/**
+	 * @return The name and version of the JVM running this, e.g. "OpenJDK 64-Bit Server VM 17.0.2+8".
+	 */
+	private static String jvm() {
+		return System.getProperty("java.vm.name") + " " + System.getProperty("java.runtime.version");
+	}
+
+
+	/**
+	 * @param name A name.
+	 * @return The name with anything that is not safe in a file name replaced by '_'.
+	 */
+	private static String clean(String name) {
+		return String.valueOf(name).replaceAll("[^A-Za-z0-9.+-]", "_");
+	}
+
+
+	/**
+	 * Saves or compares baselines from the command line.
+	 * 
+	 * save trialsFile [directory]
+	 * compare trialsFile [threshold percentage, default 5] [alpha, default 0.01] [directory]
+	 * 
+	 * @param args The command and its arguments.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2 || !(args[0].equals("save") || args[0].equals("compare"))) {
+			System.out.println("usage: BaselineStore save trialsFile [directory]");
+			System.out.println("       BaselineStore compare trialsFile [threshold %] [alpha] [directory]");
+			System.exit(2);
+		}
+		try {
+			File trialsFile = new File(args[1]);
+			if (args[0].equals("save")) {
+				BaselineStore store = new BaselineStore(new File(args.length > 2 ? args[2] : DEFAULT_DIRECTORY));
+				System.out.println("saved " + store.save(trialsFile) + " baselines to " + store.directory);
+			}
+			else {
+				double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+				double alpha = args.length > 3 ? Double.parseDouble(args[3]) : 0.01;
+				BaselineStore store = new BaselineStore(new File(args.length > 4 ? args[4] : DEFAULT_DIRECTORY));
+				int regressions = store.compare(trialsFile, threshold, alpha, System.out);
+				System.out.println(regressions + " regressions");
+				// a non-zero exit fails the build that ran the comparison
+				System.exit(regressions > 0 ? 1 : 0);
+			}
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+			System.exit(2);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts a range of the arrays in a batch on a ForkJoinPool.
+ * 
+ * The arrays are independent, so the range is split in half until each task holds about granularity items,
+ * and the tasks are sorted on whichever threads are free. An idle thread steals half of a busy one's range,
+ * so a batch of arrays with very different lengths still keeps every thread busy.
+ * 
+ * The arrays are either separate int[]s, or slices of one flat int[] between consecutive offsets.
+ */
+public class BatchSortTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+	
+	// the rig that picks the algorithm for each array
+	private TestingRig rig;
+	// the separate arrays, or null if the batch is flat
+	private int[][] batch;
+	// the flat buffer and the offset of each array in it, or null if the arrays are separate
+	private int[] data;
+	private int[] offsets;
+	// the first and last array of the range
+	private int first;
+	private int last;
+	private IntComparator comp;
+	// ranges of this many arrays or fewer are sorted on the current thread
+	private int arraysPerTask;
+	
+	/**
+	 * @param rig The rig that picks the algorithm for each array.
+	 * @param batch The separate arrays, or null if the batch is flat.
+	 * @param data The flat buffer, or null if the arrays are separate.
+	 * @param offsets The offset of each array in the flat buffer, followed by the end of the last one. null if the arrays are separate.
+	 * @param first The index of the first array of the range.
+	 * @param last The index of the last array of the range.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param arraysPerTask Ranges of this many arrays or fewer are sorted on the current thread.
+	 */
+	public BatchSortTask(TestingRig rig, int[][] batch, int[] data, int[] offsets, int first, int last, IntComparator comp, int arraysPerTask) {
+		this.rig = rig;
+		this.batch = batch;
+		this.data = data;
+		this.offsets = offsets;
+		this.first = first;
+		this.last = last;
+		this.comp = comp;
+		this.arraysPerTask = arraysPerTask;
+	}
+
+	@Override
+	protected void compute() {
+		if (last - first < arraysPerTask) {
+			// too few items to be worth splitting up, so sort on this thread
+			for (int i=first; i<=last; i++) {
+				if (batch != null) {
+					rig.sortSmall(batch[i], 0, batch[i].length-1, comp);
+				}
+				else {
+					rig.sortSmall(data, offsets[i], offsets[i+1]-1, comp);
+				}
+			}
+		}
+		else {
+			int mid = first + (last - first) / 2;
+			invokeAll(new BatchSortTask(rig, batch, data, offsets, first, mid, comp, arraysPerTask),
+					new BatchSortTask(rig, batch, data, offsets, mid+1, last, comp, arraysPerTask));
+		}
+	}
+}
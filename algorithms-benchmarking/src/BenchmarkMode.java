@@ -0,0 +1,11 @@
+
+/**
+ * What BenchmarkRig reports for each benchmark.
+ * 
+ * Throughput is the number of arrays sorted per second.
+ * SampleTime is the distribution of the time taken to sort one array.
+ */
+public enum BenchmarkMode {
+	Throughput,
+	SampleTime
+}
@@ -0,0 +1,1157 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Benchmarks the sorting algorithms more carefully than TestingRig.testSort.
+ * 
+ * testSort times one cold call per array, so its times are mostly the JIT compiling the algorithm.
+ * This runs warmup iterations before measuring, runs every benchmark in freshly forked JVMs,
+ * keeps the console quiet inside the timed region, and consumes the sorted arrays so the JIT cannot remove the sort.
+ * Each benchmark is run for every combination of algorithm, size, maxRange, distribution and mode.
+ */
+public class BenchmarkRig {
+	// the rig that holds the sorting algorithms
+	private TestingRig rig;
+	// number of iterations that are run and thrown away before measuring
+	private int warmupIterations;
+	// number of iterations that are measured
+	private int measurementIterations;
+	// minimum time each iteration runs for
+	private long iterationTimeMs;
+	// number of JVMs each benchmark is run in. 0 runs the benchmark in this JVM.
+	private int forks;
+	// number of input arrays generated for each benchmark. The arrays are cycled through so no array is always the one sorted first.
+	private int poolSize = 16;
+	// the sorts fold their results into this so the JIT cannot treat them as dead code
+	private long blackhole;
+
+	// times taken to sort one array, in nanoseconds, recorded for SampleTime mode.
+	// kept in a histogram so a long benchmark needs no more memory than a short one
+	private LatencyHistogram samples = new LatencyHistogram();
+	// the strategy chosen by an adaptive algorithm in the last benchmark, or null for the other algorithms
+	private String strategy;
+
+
+	public BenchmarkRig() {
+		this(5, 10, 200, 2);
+	}
+
+	/**
+	 * @param warmupIterations Number of iterations that are run and thrown away before measuring.
+	 * @param measurementIterations Number of iterations that are measured.
+	 * @param iterationTimeMs Minimum time each iteration runs for.
+	 * @param forks Number of JVMs each benchmark is run in. 0 runs the benchmarks in this JVM.
+	 */
+	public BenchmarkRig(int warmupIterations, int measurementIterations, long iterationTimeMs, int forks) {
+		this.rig = new TestingRig();
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.iterationTimeMs = iterationTimeMs;
+		this.forks = forks;
+	}
+
+
+	/**
+	 * Sets the pivot strategy used by the QuickSort based algorithms, including in the forked JVMs.
+	 * 
+	 * @param pivotStrategy The pivot strategy.
+	 */
+	public void setPivotStrategy(PivotStrategy pivotStrategy) {
+		rig.setPivotStrategy(pivotStrategy);
+	}
+	
+	/**
+	 * Sets whether QuickSort switches to HeapSort when its recursion gets too deep, including in the forked JVMs.
+	 * 
+	 * @param depthLimited False for the original behaviour.
+	 */
+	public void setDepthLimited(boolean depthLimited) {
+		rig.setDepthLimited(depthLimited);
+	}
+	
+	/**
+	 * Sets the seed for the generated arrays, including in the forked JVMs.
+	 * 
+	 * @param seed The seed recorded in the output of a previous run.
+	 */
+	public void setSeed(long seed) {
+		rig.setSeed(seed);
+	}
+	
+	/**
+	 * Sets how hybridQuickSort partitions each subarray, including in the forked JVMs.
+	 * 
+	 * @param partitionScheme The partition scheme.
+	 */
+	public void setPartitionScheme(PartitionScheme partitionScheme) {
+		rig.setPartitionScheme(partitionScheme);
+	}
+	
+	/**
+	 * Sets the size of subarray hybridQuickSort hands over to insertion sort, including in the forked JVMs.
+	 * 
+	 * @param insertionSortCutoff Subarrays of this many items or fewer are insertion sorted.
+	 */
+	public void setInsertionSortCutoff(int insertionSortCutoff) {
+		rig.setInsertionSortCutoff(insertionSortCutoff);
+	}
+	
+	/**
+	 * Sets how hybridQuickSort sorts the subarrays of insertionSortCutoff items or fewer, including in the forked JVMs.
+	 * 
+	 * @param leafSort The leaf sort.
+	 */
+	public void setLeafSort(LeafSort leafSort) {
+		rig.setLeafSort(leafSort);
+	}
+	
+	/**
+	 * Sets the size of the external buffer inPlaceMergeSort merges through, including in the forked JVMs.
+	 * 
+	 * @param bufferSize Number of items in the buffer. 0 merges by rotations only.
+	 */
+	public void setInPlaceMergeBufferSize(int bufferSize) {
+		rig.setInPlaceMergeBufferSize(bufferSize);
+	}
+	
+	/**
+	 * Sets the size of subarray the parallel algorithms sort sequentially, including in the forked JVMs.
+	 * 
+	 * @param parallelGranularity Subarrays smaller than this are not split further.
+	 */
+	public void setParallelGranularity(int parallelGranularity) {
+		rig.setParallelGranularity(parallelGranularity);
+	}
+	
+	
+	/**
+	 * Gets the registry of every SortAlgorithm, all of which use this benchmark's settings.
+	 * 
+	 * @return The registry.
+	 */
+	public SortAlgorithmRegistry getRegistry() {
+		return rig.getRegistry();
+	}
+	
+	
+	/**
+	 * Measures the mean throughput of one benchmark, without exporting it.
+	 * 
+	 * @param algorithm The algorithm you wish to benchmark.
+	 * @param size The size of the arrays that will be sorted.
+	 * @param maxRange The maximum value of the integers in the arrays.
+	 * @param distribution The shape of the arrays that will be sorted.
+	 * @return The mean number of arrays sorted per second, or 0 if the benchmark failed.
+	 */
+	public double measureThroughput(Algorithm algorithm, int size, int maxRange, Distribution distribution) {
+		ArrayList<Double> throughputs = new ArrayList<Double>();
+		if (!benchmark(rig.getRegistry().get(algorithm), size, maxRange, distribution, throughputs)) {
+			return 0;
+		}
+		double sum = 0;
+		for (double throughput : throughputs) {
+			sum += throughput;
+		}
+		return sum/throughputs.size();
+	}
+
+
+	/**
+	 * Benchmarks every combination of the given algorithms, sizes, ranges, distributions and modes.
+	 * 
+	 * One file is exported per algorithm. Each line of the file holds the result of one benchmark.
+	 * 
+	 * @param algorithms The algorithms you wish to benchmark.
+	 * @param sizes The sizes of the arrays that will be sorted.
+	 * @param maxRanges The maximum values of the integers in the arrays.
+	 * @param distributions The shapes of the arrays that will be sorted.
+	 * @param modes What is measured for each benchmark.
+	 * @param filePath The filepath for the exported files.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export files.
+	 */
+	public void benchmark(Algorithm[] algorithms, int[] sizes, int[] maxRanges, Distribution[] distributions, BenchmarkMode[] modes, String filePath, String fileSuffix) {
+		ArrayList<SortAlgorithm> sortAlgorithms = new ArrayList<SortAlgorithm>();
+		for (Algorithm algorithm : algorithms) {
+			sortAlgorithms.add(rig.getRegistry().get(algorithm));
+		}
+		benchmark(sortAlgorithms, sizes, maxRanges, distributions, modes, filePath, fileSuffix);
+	}
+
+
+	/**
+	 * Benchmarks every combination of the given algorithms, sizes, ranges, distributions and modes.
+	 * 
+	 * The algorithms should come from getRegistry(), so they use this benchmark's settings.
+	 * The forked JVMs look each algorithm up by name in their own registry.
+	 * 
+	 * @param algorithms The algorithms you wish to benchmark, e.g. the whole registry.
+	 * @param sizes The sizes of the arrays that will be sorted.
+	 * @param maxRanges The maximum values of the integers in the arrays.
+	 * @param distributions The shapes of the arrays that will be sorted.
+	 * @param modes What is measured for each benchmark.
+	 * @param filePath The filepath for the exported files.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export files.
+	 */
+	public void benchmark(Iterable<SortAlgorithm> algorithms, int[] sizes, int[] maxRanges, Distribution[] distributions, BenchmarkMode[] modes, String filePath, String fileSuffix) {
+		for (SortAlgorithm algorithm : algorithms) {
+			try {
+				File file = new File(filePath + algorithm.name() + fileSuffix + "Benchmark");
+				file.getAbsoluteFile().getParentFile().mkdirs();
+				file.createNewFile();
+				PrintStream print = new PrintStream(file);
+				print.println("algorithm, distribution, seed, size, maxRange, mode, score, error, min, p50, p90, p99, p99.9, max, unit, strategy");
+
+				for (Distribution distribution : distributions) {
+					for (int maxRange : maxRanges) {
+						for (int size : sizes) {
+							System.out.println(algorithm.name() + " " + distribution + " " + size + " " + maxRange);
+							// every mode is summarised from the same run
+							ArrayList<Double> throughputs = new ArrayList<Double>();
+							boolean finished = benchmark(algorithm, size, maxRange, distribution, throughputs);
+							for (BenchmarkMode mode : modes) {
+								String result = finished ? summarise(mode, throughputs) : "failed, , , , , , , , ";
+								print.println(algorithm.name() + ", " + distribution + ", " + rig.seed + ", " + size + ", " + maxRange + ", " + mode + ", " + result + ", " + (strategy == null ? "" : strategy));
+							}
+							print.flush();
+						}
+					}
+				}
+				print.close();
+			}
+			catch (IOException error) {
+				System.out.println("error: " + error);
+			}
+		}
+	}
+
+
+	/**
+	 * Benchmarks ExternalSort on generated files, for every combination of the given file sizes and chunk sizes.
+	 * 
+	 * Each file is generated once, a chunk at a time so it never has to fit on the heap, and sorted once per measured iteration.
+	 * The whole external sort is timed, including the disk, as that is what limits it. The output is checked outside the timed region.
+	 * 
+	 * @param algorithm The algorithm that sorts each chunk in memory.
+	 * @param fileSizes The number of integers in each file.
+	 * @param chunkSizes The number of integers sorted in memory at once.
+	 * @param maxRange The maximum value of the integers in the files.
+	 * @param distribution The shape of each chunk of the files.
+	 * @param tempDirectory The directory the files and runs are written to. null uses the system temporary directory.
+	 * @param filePath The filepath for the exported file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file.
+	 */
+	public void benchmarkExternalSort(Algorithm algorithm, long[] fileSizes, int[] chunkSizes, int maxRange, Distribution distribution, File tempDirectory, String filePath, String fileSuffix) {
+		try {
+			File file = new File(filePath + "ExternalSort" + fileSuffix + "Benchmark");
+			file.getAbsoluteFile().getParentFile().mkdirs();
+			file.createNewFile();
+			PrintStream print = new PrintStream(file);
+			print.println("algorithm, distribution, seed, fileSize, chunkSize, maxRange, score, error, unit");
+
+			for (long fileSize : fileSizes) {
+				File input = File.createTempFile("input", ".bin", tempDirectory);
+				File output = File.createTempFile("output", ".bin", tempDirectory);
+				input.deleteOnExit();
+				output.deleteOnExit();
+				rig.generator.reset();
+				int generateSize = (int)Math.min(fileSize, chunkSizes[0]);
+				try (IntFileWriter writer = new IntFileWriter(input, 1 << 16)) {
+					for (long written=0; written<fileSize; written+=generateSize) {
+						int size = (int)Math.min(generateSize, fileSize - written);
+						writer.write(rig.generateData(size, maxRange, distribution), 0, size);
+					}
+				}
+				double megabytes = fileSize * 4 / 1000000.0;
+
+				for (int chunkSize : chunkSizes) {
+					System.out.println("ExternalSort " + algorithm + " " + fileSize + " " + chunkSize);
+					ExternalSort externalSort = new ExternalSort(rig.getRegistry().get(algorithm), rig.comparator, chunkSize);
+					externalSort.setTempDirectory(tempDirectory);
+					double[] rates = new double[measurementIterations];
+					for (int iteration=-warmupIterations; iteration<measurementIterations; iteration++) {
+						long startTime = System.nanoTime();
+						externalSort.sort(input, output);
+						long timeTaken = System.nanoTime() - startTime;
+						if (!isSorted(output, fileSize)) {
+							throw new IllegalStateException("ExternalSort did not sort the file");
+						}
+						// the warmup iterations have negative numbers, and are not recorded
+						if (iteration >= 0) {
+							rates[iteration] = megabytes / (((double)timeTaken)/1000000000);
+						}
+					}
+
+					print.println(algorithm + ", " + distribution + ", " + rig.seed + ", " + fileSize + ", " + chunkSize + ", " + maxRange + ", " + summarise(rates) + ", MB/s");
+					print.flush();
+				}
+				input.delete();
+				output.delete();
+			}
+			print.close();
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+		}
+	}
+
+
+	/**
+	 * Benchmarks sorting data that is held off the heap, in a direct IntBuffer.
+	 * 
+	 * Each algorithm is measured three ways: heap sorts an int[] (the data was never off the heap),
+	 * copy copies the buffer into an int[], sorts it and copies it back (what the int[] algorithms force on off-heap data),
+	 * and direct sorts the buffer in place with IntBufferSort.
+	 * 
+	 * @param algorithms The algorithms you wish to benchmark. Only QuickSort, HybridQuickSort and InsertionSort have IntBuffer versions.
+	 * @param sizes The sizes of the arrays that will be sorted.
+	 * @param maxRange The maximum value of the integers in the arrays.
+	 * @param distribution The shape of the arrays that will be sorted.
+	 * @param filePath The filepath for the exported file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file.
+	 */
+	public void benchmarkOffHeap(Algorithm[] algorithms, int[] sizes, int maxRange, Distribution distribution, String filePath, String fileSuffix) {
+		IntBufferSort bufferSort = new IntBufferSort(rig);
+		String[] variants = {"heap", "copy", "direct"};
+		try {
+			File file = new File(filePath + "OffHeap" + fileSuffix + "Benchmark");
+			file.getAbsoluteFile().getParentFile().mkdirs();
+			file.createNewFile();
+			PrintStream print = new PrintStream(file);
+			print.println("algorithm, variant, distribution, seed, size, maxRange, score, error, unit");
+
+			for (int size : sizes) {
+				rig.generator.reset();
+				int[][] pool = new int[poolSize][];
+				for (int i=0; i<poolSize; i++) {
+					pool[i] = rig.generateData(size, maxRange, distribution);
+				}
+				int[] heap = new int[size];
+				IntBuffer direct = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+
+				for (Algorithm algorithm : algorithms) {
+					for (String variant : variants) {
+						System.out.println("OffHeap " + algorithm + " " + variant + " " + size);
+						double[] throughputs = new double[measurementIterations];
+						for (int iteration=-warmupIterations; iteration<measurementIterations; iteration++) {
+							double throughput = runOffHeapIteration(algorithm, variant, bufferSort, pool, heap, direct);
+							// the warmup iterations have negative numbers, and are not recorded
+							if (iteration >= 0) {
+								throughputs[iteration] = throughput;
+							}
+						}
+
+						print.println(algorithm + ", " + variant + ", " + distribution + ", " + rig.seed + ", " + size + ", " + maxRange + ", " + summarise(throughputs) + ", arrays/s");
+						print.flush();
+					}
+				}
+			}
+			print.close();
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+		}
+	}
+
+
+	/**
+	 * Sorts arrays one way until the iteration time has passed.
+	 * 
+	 * Loading each input into the int[] or buffer happens outside the timed region, and so does checking the output.
+	 * 
+	 * @param algorithm QuickSort, HybridQuickSort or InsertionSort.
+	 * @param variant heap, copy or direct.
+	 * @param bufferSort Sorts the buffer for the direct variant.
+	 * @param pool The input arrays.
+	 * @param heap The array sorted by the heap and copy variants.
+	 * @param direct The buffer the inputs are loaded into for the copy and direct variants.
+	 * @return The number of arrays sorted per second.
+	 */
+	private double runOffHeapIteration(Algorithm algorithm, String variant, IntBufferSort bufferSort, int[][] pool, int[] heap, IntBuffer direct) {
+		long sortTime = 0;
+		long arraysSorted = 0;
+		int next = 0;
+		long endTime = System.nanoTime() + iterationTimeMs * 1000000;
+
+		while (System.nanoTime() < endTime) {
+			if (variant.equals("heap")) {
+				System.arraycopy(pool[next], 0, heap, 0, heap.length);
+			}
+			else {
+				direct.put(0, pool[next]);
+			}
+			next = (next + 1) % pool.length;
+
+			long startTime = System.nanoTime();
+			if (variant.equals("direct")) {
+				switch (algorithm) {
+				case QuickSort:
+					bufferSort.quickSort(direct, rig.comparator);
+					break;
+				case HybridQuickSort:
+					bufferSort.hybridQuickSort(direct, rig.comparator);
+					break;
+				case InsertionSort:
+					bufferSort.insertionSort(direct, rig.comparator);
+					break;
+				default:
+					throw new IllegalArgumentException(algorithm + " has no IntBuffer version");
+				}
+			}
+			else {
+				if (variant.equals("copy")) {
+					direct.get(0, heap);
+				}
+				rig.sort(heap, algorithm, rig.comparator);
+				if (variant.equals("copy")) {
+					direct.put(0, heap);
+				}
+			}
+			sortTime += System.nanoTime() - startTime;
+			arraysSorted++;
+
+			boolean sorted = variant.equals("heap") ? rig.isSorted(heap, rig.comparator) : bufferSort.isSorted(direct, rig.comparator);
+			if (!sorted) {
+				throw new IllegalStateException(algorithm + " " + variant + " did not sort the array");
+			}
+			blackhole += direct.get(0) ^ heap[0];
+		}
+		return arraysSorted / (((double)sortTime)/1000000000);
+	}
+
+
+	/**
+	 * Benchmarks sorting keys together with a payload, against sorting an array of pairs.
+	 * 
+	 * coSort is TestingRig.sort(keys, values), stableCoSort is TestingRig.stableSort(keys, values),
+	 * argsort is TestingRig.argsort(keys) (the keys are not moved), and pairs sorts an int[][] of {key, value} pairs
+	 * with Arrays.sort and a Comparator, which is what the same job looks like without the co-sorts.
+	 * 
+	 * @param sizes The sizes of the arrays that will be sorted.
+	 * @param maxRange The maximum value of the keys.
+	 * @param distribution The shape of the keys.
+	 * @param filePath The filepath for the exported file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file.
+	 */
+	public void benchmarkKeyValue(int[] sizes, int maxRange, Distribution distribution, String filePath, String fileSuffix) {
+		String[] variants = {"coSort", "stableCoSort", "argsort", "pairs"};
+		try {
+			File file = new File(filePath + "KeyValue" + fileSuffix + "Benchmark");
+			file.getAbsoluteFile().getParentFile().mkdirs();
+			file.createNewFile();
+			PrintStream print = new PrintStream(file);
+			print.println("variant, distribution, seed, size, maxRange, score, error, unit");
+
+			for (int size : sizes) {
+				rig.generator.reset();
+				int[][] pool = new int[poolSize][];
+				for (int i=0; i<poolSize; i++) {
+					pool[i] = rig.generateData(size, maxRange, distribution);
+				}
+
+				for (String variant : variants) {
+					System.out.println("KeyValue " + variant + " " + size);
+					double[] throughputs = new double[measurementIterations];
+					for (int iteration=-warmupIterations; iteration<measurementIterations; iteration++) {
+						double throughput = runKeyValueIteration(variant, pool, size);
+						// the warmup iterations have negative numbers, and are not recorded
+						if (iteration >= 0) {
+							throughputs[iteration] = throughput;
+						}
+					}
+					print.println(variant + ", " + distribution + ", " + rig.seed + ", " + size + ", " + maxRange + ", " + summarise(throughputs) + ", arrays/s");
+					print.flush();
+				}
+			}
+			print.close();
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+		}
+	}
+
+
+	/**
+	 * Sorts keys and values one way until the iteration time has passed.
+	 * 
+	 * The value of each key is its original index, so every variant can be checked the same way.
+	 * Building the inputs and checking the outputs happen outside the timed region.
+	 * 
+	 * @param variant coSort, stableCoSort, argsort or pairs.
+	 * @param pool The input keys.
+	 * @param size The number of keys in each input.
+	 * @return The number of arrays sorted per second.
+	 */
+	private double runKeyValueIteration(String variant, int[][] pool, int size) {
+		int[] keys = new int[size];
+		int[] values = new int[size];
+		int[][] pairs = new int[size][2];
+		Comparator<int[]> byKey = (pair1, pair2) -> rig.comparator.compare(pair1[0], pair2[0]);
+		long sortTime = 0;
+		long arraysSorted = 0;
+		int next = 0;
+		long endTime = System.nanoTime() + iterationTimeMs * 1000000;
+
+		while (System.nanoTime() < endTime) {
+			int[] input = pool[next];
+			next = (next + 1) % pool.length;
+			for (int i=0; i<size; i++) {
+				keys[i] = input[i];
+				values[i] = i;
+				pairs[i][0] = input[i];
+				pairs[i][1] = i;
+			}
+
+			long startTime = System.nanoTime();
+			switch (variant) {
+			case "coSort":
+				rig.sort(keys, values, rig.comparator);
+				break;
+			case "stableCoSort":
+				rig.stableSort(keys, values, rig.comparator);
+				break;
+			case "argsort":
+				values = rig.argsort(keys, rig.comparator);
+				break;
+			default:
+				Arrays.sort(pairs, byKey);
+				break;
+			}
+			sortTime += System.nanoTime() - startTime;
+			arraysSorted++;
+
+			// every variant is checked as the sorted keys and the original index of each key
+			boolean pairsVariant = variant.equals("pairs");
+			int previous = 0;
+			for (int i=0; i<size; i++) {
+				int index = pairsVariant ? pairs[i][1] : values[i];
+				int key = pairsVariant ? pairs[i][0] : variant.equals("argsort") ? input[index] : keys[i];
+				if (input[index] != key || (i > 0 && rig.comparator.compare(key, previous) < 0)) {
+					throw new IllegalStateException(variant + " did not sort the keys and values");
+				}
+				previous = key;
+			}
+			if (size > 0) {
+				blackhole += values[0] ^ keys[0];
+			}
+		}
+		return arraysSorted / (((double)sortTime)/1000000000);
+	}
+
+
+	/**
+	 * Benchmarks sorting a batch of many small arrays at once, against sorting them one at a time.
+	 * 
+	 * loop Hybrid-QuickSorts each array in turn on this thread, which is what calling the rig once per array does.
+	 * sortAll sorts the batch as separate int[]s with TestingRig.sortAll, and flat sorts it as one buffer with offsets.
+	 * Both spread the arrays across the rig's pool, and pick the algorithm for each array by its length.
+	 * Throughput is the number of arrays sorted per second. SampleTime is the time each batch took divided by its number of arrays.
+	 * 
+	 * @param sizes The number of items in each array of a batch.
+	 * @param batchSize The number of arrays in a batch.
+	 * @param maxRange The maximum value of the integers in the arrays.
+	 * @param distribution The shape of the arrays that will be sorted.
+	 * @param modes What is reported for each variant.
+	 * @param filePath The filepath for the exported file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file.
+	 */
+	public void benchmarkBatch(int[] sizes, int batchSize, int maxRange, Distribution distribution, BenchmarkMode[] modes, String filePath, String fileSuffix) {
+		String[] variants = {"loop", "sortAll", "flat"};
+		try {
+			File file = new File(filePath + "Batch" + fileSuffix + "Benchmark");
+			file.getAbsoluteFile().getParentFile().mkdirs();
+			file.createNewFile();
+			PrintStream print = new PrintStream(file);
+			print.println("variant, distribution, seed, size, batchSize, maxRange, mode, score, error, min, p50, p90, p99, p99.9, max, unit");
+
+			for (int size : sizes) {
+				rig.generator.reset();
+				int[][] inputs = new int[batchSize][];
+				for (int i=0; i<batchSize; i++) {
+					inputs[i] = rig.generateData(size, maxRange, distribution);
+				}
+
+				for (String variant : variants) {
+					System.out.println("Batch " + variant + " " + size + " " + batchSize);
+					samples.reset();
+					ArrayList<Double> throughputs = new ArrayList<Double>();
+					for (int iteration=-warmupIterations; iteration<measurementIterations; iteration++) {
+						// the warmup iterations have negative numbers, and are not recorded
+						double throughput = runBatchIteration(variant, inputs, iteration >= 0);
+						if (iteration >= 0) {
+							throughputs.add(throughput);
+						}
+					}
+					for (BenchmarkMode mode : modes) {
+						print.println(variant + ", " + distribution + ", " + rig.seed + ", " + size + ", " + batchSize + ", " + maxRange + ", " + mode + ", " + summarise(mode, throughputs));
+					}
+					print.flush();
+				}
+			}
+			print.close();
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+		}
+	}
+
+
+	/**
+	 * Sorts batches one way until the iteration time has passed.
+	 * 
+	 * Copying the inputs into the batch happens outside the timed region, and so does checking the output.
+	 * 
+	 * @param variant loop, sortAll or flat.
+	 * @param inputs The input arrays, which are all the same length.
+	 * @param record True to record the time per array of each batch in the samples.
+	 * @return The number of arrays sorted per second.
+	 */
+	private double runBatchIteration(String variant, int[][] inputs, boolean record) {
+		int size = inputs[0].length;
+		int[][] batch = new int[inputs.length][size];
+		int[] flat = new int[inputs.length * size];
+		int[] offsets = new int[inputs.length + 1];
+		for (int i=0; i<=inputs.length; i++) {
+			offsets[i] = i * size;
+		}
+		long sortTime = 0;
+		long arraysSorted = 0;
+		long endTime = System.nanoTime() + iterationTimeMs * 1000000;
+
+		while (System.nanoTime() < endTime) {
+			for (int i=0; i<inputs.length; i++) {
+				if (variant.equals("flat")) {
+					System.arraycopy(inputs[i], 0, flat, offsets[i], size);
+				}
+				else {
+					System.arraycopy(inputs[i], 0, batch[i], 0, size);
+				}
+			}
+
+			long startTime = System.nanoTime();
+			switch (variant) {
+			case "loop":
+				for (int[] data : batch) {
+					rig.hybridQuickSort(data, rig.comparator);
+				}
+				break;
+			case "sortAll":
+				rig.sortAll(batch, rig.comparator);
+				break;
+			default:
+				rig.sortAll(flat, offsets, rig.comparator);
+				break;
+			}
+			long timeTaken = System.nanoTime() - startTime;
+			sortTime += timeTaken;
+			arraysSorted += inputs.length;
+			if (record) {
+				samples.record(timeTaken/inputs.length);
+			}
+
+			for (int i=0; i<inputs.length; i++) {
+				boolean sorted = variant.equals("flat") ? rig.isSorted(Arrays.copyOfRange(flat, offsets[i], offsets[i+1]), rig.comparator)
+						: rig.isSorted(batch[i], rig.comparator);
+				if (!sorted) {
+					throw new IllegalStateException(variant + " did not sort array " + i + " of the batch");
+				}
+			}
+			if (size > 0) {
+				blackhole += variant.equals("flat") ? flat[0] : batch[0][0];
+			}
+		}
+		return arraysSorted / (((double)sortTime)/1000000000);
+	}
+
+
+	/**
+	 * Benchmarks finding the first k items of an array, against sorting the whole array and slicing it.
+	 * 
+	 * sort Hybrid-QuickSorts a copy and takes its first k items, select is TestingRig.select of index k-1 (the k-th item as a cut-off),
+	 * partialSort is TestingRig.partialSort, and topK is TestingRig.topK, which streams the array through a heap of k items.
+	 * 
+	 * @param sizes The sizes of the arrays.
+	 * @param ks The numbers of items to find. Those larger than a size are skipped for it.
+	 * @param maxRange The maximum value of the integers in the arrays.
+	 * @param distribution The shape of the arrays.
+	 * @param filePath The filepath for the exported file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file.
+	 */
+	public void benchmarkSelection(int[] sizes, int[] ks, int maxRange, Distribution distribution, String filePath, String fileSuffix) {
+		String[] variants = {"sort", "select", "partialSort", "topK"};
+		try {
+			File file = new File(filePath + "Selection" + fileSuffix + "Benchmark");
+			file.getAbsoluteFile().getParentFile().mkdirs();
+			file.createNewFile();
+			PrintStream print = new PrintStream(file);
+			print.println("variant, distribution, seed, size, k, maxRange, score, error, unit");
+
+			for (int size : sizes) {
+				rig.generator.reset();
+				int[][] pool = new int[poolSize][];
+				int[][] sortedPool = new int[poolSize][];
+				for (int i=0; i<poolSize; i++) {
+					pool[i] = rig.generateData(size, maxRange, distribution);
+					// the answers every variant is checked against
+					sortedPool[i] = pool[i].clone();
+					rig.hybridQuickSort(sortedPool[i], rig.comparator);
+				}
+
+				for (int k : ks) {
+					if (k < 1 || k > size) {
+						continue;
+					}
+					for (String variant : variants) {
+						System.out.println("Selection " + variant + " " + size + " " + k);
+						double[] throughputs = new double[measurementIterations];
+						for (int iteration=-warmupIterations; iteration<measurementIterations; iteration++) {
+							double throughput = runSelectionIteration(variant, pool, sortedPool, k);
+							// the warmup iterations have negative numbers, and are not recorded
+							if (iteration >= 0) {
+								throughputs[iteration] = throughput;
+							}
+						}
+						print.println(variant + ", " + distribution + ", " + rig.seed + ", " + size + ", " + k + ", " + maxRange + ", " + summarise(throughputs) + ", arrays/s");
+						print.flush();
+					}
+				}
+			}
+			print.close();
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+		}
+	}
+
+
+	/**
+	 * Finds the first k items of arrays one way until the iteration time has passed.
+	 * 
+	 * Copying each input happens outside the timed region, and so does checking the output.
+	 * 
+	 * @param variant sort, select, partialSort or topK.
+	 * @param pool The input arrays.
+	 * @param sortedPool The input arrays, sorted.
+	 * @param k The number of items to find.
+	 * @return The number of arrays searched per second.
+	 */
+	private double runSelectionIteration(String variant, int[][] pool, int[][] sortedPool, int k) {
+		int[] data = new int[pool[0].length];
+		long sortTime = 0;
+		long arraysSearched = 0;
+		int next = 0;
+		long endTime = System.nanoTime() + iterationTimeMs * 1000000;
+
+		while (System.nanoTime() < endTime) {
+			int[] expected = sortedPool[next];
+			System.arraycopy(pool[next], 0, data, 0, data.length);
+			next = (next + 1) % pool.length;
+
+			int[] result = null;
+			long startTime = System.nanoTime();
+			switch (variant) {
+			case "sort":
+				rig.hybridQuickSort(data, rig.comparator);
+				result = Arrays.copyOf(data, k);
+				break;
+			case "select":
+				rig.select(data, k-1, rig.comparator);
+				break;
+			case "partialSort":
+				rig.partialSort(data, k, rig.comparator);
+				break;
+			default:
+				result = rig.topK(data, k, rig.comparator);
+				break;
+			}
+			sortTime += System.nanoTime() - startTime;
+			arraysSearched++;
+
+			// select only promises the item at k-1, the others promise the first k items in order
+			boolean correct;
+			if (variant.equals("select")) {
+				correct = data[k-1] == expected[k-1];
+			}
+			else {
+				correct = Arrays.equals(result == null ? data : result, 0, k, expected, 0, k);
+			}
+			if (!correct) {
+				throw new IllegalStateException(variant + " did not find the first " + k + " items");
+			}
+			blackhole += data[k-1];
+		}
+		return arraysSearched / (((double)sortTime)/1000000000);
+	}
+
+
+	/**
+	 * Summarises the measured iterations of one of the specialised benchmarks.
+	 * 
+	 * @param scores The score of each measured iteration.
+	 * @return The mean and standard deviation of the scores, separated by ", ".
+	 */
+	private String summarise(double[] scores) {
+		double sum = 0;
+		for (double score : scores) {
+			sum += score;
+		}
+		double avg = sum/scores.length;
+		double deviation = 0;
+		for (double score : scores) {
+			deviation += rig.square(score - avg);
+		}
+		deviation = Math.sqrt(deviation/scores.length);
+		return avg + ", " + deviation;
+	}
+
+
+	/**
+	 * Checks that a binary file of integers is sorted, by streaming through it.
+	 * 
+	 * @param file The file to check.
+	 * @param fileSize The number of integers the file should hold.
+	 * @return True if the file holds fileSize integers in order.
+	 * @throws IOException If the file cannot be read.
+	 */
+	private boolean isSorted(File file, long fileSize) throws IOException {
+		try (IntFileReader reader = new IntFileReader(file, 1 << 16)) {
+			long count = 0;
+			int previous = 0;
+			while (reader.hasNext()) {
+				int item = reader.next();
+				if (count > 0 && rig.comparator.compare(previous, item) > 0) {
+					return false;
+				}
+				blackhole += item;
+				previous = item;
+				count++;
+			}
+			return count == fileSize;
+		}
+	}
+
+
+	/**
+	 * Runs one benchmark in each fork.
+	 * 
+	 * @param algorithm The algorithm you wish to benchmark.
+	 * @param size The size of the arrays that will be sorted.
+	 * @param maxRange The maximum value of the integers in the arrays.
+	 * @param distribution The shape of the arrays that will be sorted.
+	 * @param throughputs The throughput of each measured iteration is added to this.
+	 * @return True if every fork finished, False if one failed.
+	 */
+	private boolean benchmark(SortAlgorithm algorithm, int size, int maxRange, Distribution distribution, ArrayList<Double> throughputs) {
+		// samples from the previous benchmark should not be counted
+		samples.reset();
+		strategy = null;
+
+		if (forks == 0) {
+			runBenchmark(algorithm, size, maxRange, distribution, throughputs);
+			strategy = rig.lastStrategy;
+			return true;
+		}
+		for (int fork=0; fork<forks; fork++) {
+			if (!runFork(algorithm, size, maxRange, distribution, throughputs)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Summarises the results of a benchmark.
+	 * 
+	 * @param mode What is reported.
+	 * @param throughputs The throughput of each measured iteration.
+	 * @return The score, error, percentiles and unit, separated by ", ".
+	 */
+	private String summarise(BenchmarkMode mode, ArrayList<Double> throughputs) {
+		if (mode == BenchmarkMode.Throughput) {
+			// mean and standard deviation of the iterations, the same as testSort
+			double sum = 0;
+			for (double throughput : throughputs) {
+				sum += throughput;
+			}
+			double avg = sum/throughputs.size();
+			double deviation = 0;
+			for (double throughput : throughputs) {
+				deviation += rig.square(throughput - avg);
+			}
+			deviation = Math.sqrt(deviation/throughputs.size());
+			return avg + ", " + deviation + ", , , , , , , arrays/s";
+		}
+		else {
+			if (samples.getCount() == 0) {
+				return "no samples, , , , , , , , ";
+			}
+			return samples.getMean() + ", " + samples.getStandardDeviation() + ", " + samples.getMin() + ", " + samples.getValueAtPercentile(50) + ", "
+					+ samples.getValueAtPercentile(90) + ", " + samples.getValueAtPercentile(99) + ", " + samples.getValueAtPercentile(99.9) + ", "
+					+ samples.getMax() + ", ns/array";
+		}
+	}
+
+
+	/**
+	 * Runs one benchmark in a new JVM, so the JIT decisions made for other benchmarks do not affect it.
+	 * 
+	 * The forked JVM prints one line per measured iteration, then one line holding the histogram of its samples.
+	 * 
+	 * @param algorithm The algorithm you wish to benchmark.
+	 * @param size The size of the arrays that will be sorted.
+	 * @param maxRange The maximum value of the integers in the arrays.
+	 * @param distribution The shape of the arrays that will be sorted.
+	 * @param throughputs The throughput of each measured iteration is added to this.
+	 * @return True if the fork finished, False if it failed.
+	 */
+	private boolean runFork(SortAlgorithm algorithm, int size, int maxRange, Distribution distribution, ArrayList<Double> throughputs) {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "BenchmarkRig", "--fork",
+				algorithm.name(), "" + size, "" + maxRange, distribution.name(),
+				"" + warmupIterations, "" + measurementIterations, "" + iterationTimeMs,
+				rig.pivotStrategy.name(), "" + rig.depthLimited, rig.partitionScheme.name(), "" + rig.insertionSortCutoff, "" + rig.seed,
+				rig.leafSort.name(), "" + rig.inPlaceMergeSort.getBufferSize(), "" + rig.parallelGranularity);
+		builder.redirectErrorStream(true);
+		try {
+			Process process = builder.start();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("THROUGHPUT ")) {
+					throughputs.add(Double.parseDouble(line.substring(11)));
+				}
+				else if (line.startsWith("SAMPLES ")) {
+					samples.add(LatencyHistogram.decode(line.substring(8)));
+				}
+				else if (line.startsWith("STRATEGY ")) {
+					strategy = line.substring(9);
+				}
+				else if (!line.startsWith("BLACKHOLE ")) {
+					// anything else is an error from the fork, e.g. a StackOverflowError
+					System.out.println(line);
+				}
+			}
+			return process.waitFor() == 0;
+		}
+		catch (IOException | InterruptedException error) {
+			System.out.println("error: " + error);
+			return false;
+		}
+	}
+
+
+	/**
+	 * Runs the warmup and measured iterations of one benchmark in this JVM.
+	 * 
+	 * @param algorithm The algorithm you wish to benchmark.
+	 * @param size The size of the arrays that will be sorted.
+	 * @param maxRange The maximum value of the integers in the arrays.
+	 * @param distribution The shape of the arrays that will be sorted.
+	 * @param throughputs The throughput of each measured iteration is added to this.
+	 */
+	private void runBenchmark(SortAlgorithm algorithm, int size, int maxRange, Distribution distribution, ArrayList<Double> throughputs) {
+		// the inputs are generated once from the seed, and copied before each sort.
+		// Restarting the generator means every algorithm sorts the same inputs.
+		rig.generator.reset();
+		int[][] pool = new int[poolSize][];
+		for (int i=0; i<poolSize; i++) {
+			pool[i] = rig.generateData(size, maxRange, distribution);
+		}
+
+		// small arrays are sorted in batches, as nanoTime is not precise enough to time a single small sort.
+		int batchSize = Math.max(1, 100000/Math.max(1, size));
+		int[][] batch = new int[batchSize][size];
+
+		for (int iteration=0; iteration<warmupIterations; iteration++) {
+			runIteration(algorithm, pool, batch, false);
+		}
+		for (int iteration=0; iteration<measurementIterations; iteration++) {
+			throughputs.add(runIteration(algorithm, pool, batch, true));
+		}
+	}
+
+
+	/**
+	 * Sorts batches of arrays until the iteration time has passed.
+	 * 
+	 * Only the sorts are timed. Copying the inputs and checking the outputs happen outside the timed region.
+	 * 
+	 * @param algorithm The algorithm you wish to benchmark.
+	 * @param pool The input arrays.
+	 * @param batch The arrays that get sorted.
+	 * @param record True if the time taken by each batch should be recorded as a sample.
+	 * @return The number of arrays sorted per second.
+	 */
+	private double runIteration(SortAlgorithm algorithm, int[][] pool, int[][] batch, boolean record) {
+		long sortTime = 0;
+		long arraysSorted = 0;
+		int next = 0;
+		long endTime = System.nanoTime() + iterationTimeMs * 1000000;
+
+		while (System.nanoTime() < endTime) {
+			for (int[] data : batch) {
+				System.arraycopy(pool[next], 0, data, 0, data.length);
+				next = (next + 1) % pool.length;
+			}
+
+			long startTime = System.nanoTime();
+			for (int[] data : batch) {
+				// one implementation per benchmark, so the JIT sees a single target here
+				algorithm.sort(data, 0, data.length-1, rig.comparator);
+			}
+			long timeTaken = System.nanoTime() - startTime;
+
+			for (int[] data : batch) {
+				if (!rig.isSorted(data, rig.comparator)) {
+					throw new IllegalStateException(algorithm.name() + " did not sort the array");
+				}
+				if (data.length > 0) {
+					blackhole += data[0] ^ data[data.length-1];
+				}
+			}
+
+			sortTime += timeTaken;
+			arraysSorted += batch.length;
+			if (record) {
+				samples.record(timeTaken/batch.length);
+			}
+		}
+		return arraysSorted / (((double)sortTime)/1000000000);
+	}
+
+
+	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("--fork")) {
+			// this JVM was forked to run a single benchmark. The results are printed for the parent JVM to read.
+			BenchmarkRig fork = new BenchmarkRig(Integer.parseInt(args[5]), Integer.parseInt(args[6]), Long.parseLong(args[7]), 0);
+			fork.setPivotStrategy(PivotStrategy.valueOf(args[8]));
+			fork.setDepthLimited(Boolean.parseBoolean(args[9]));
+			fork.setPartitionScheme(PartitionScheme.valueOf(args[10]));
+			fork.setInsertionSortCutoff(Integer.parseInt(args[11]));
+			fork.setSeed(Long.parseLong(args[12]));
+			fork.setLeafSort(LeafSort.valueOf(args[13]));
+			fork.setInPlaceMergeBufferSize(Integer.parseInt(args[14]));
+			fork.setParallelGranularity(Integer.parseInt(args[15]));
+			ArrayList<Double> throughputs = new ArrayList<Double>();
+			fork.runBenchmark(fork.getRegistry().get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), Distribution.valueOf(args[4]), throughputs);
+			for (double throughput : throughputs) {
+				System.out.println("THROUGHPUT " + throughput);
+			}
+			System.out.println("SAMPLES " + fork.samples.encode());
+			if (fork.rig.lastStrategy != null) {
+				System.out.println("STRATEGY " + fork.rig.lastStrategy);
+			}
+			System.out.println("BLACKHOLE " + fork.blackhole);
+			return;
+		}
+
+		BenchmarkRig main = new BenchmarkRig();
+		BenchmarkMode[] modes = {BenchmarkMode.Throughput, BenchmarkMode.SampleTime};
+
+		// compare the algorithms that finish in a reasonable time at every size
+		int[] sizes = {10, 100, 1000, 10000, 100000};
+		int[] maxRanges = {100, 100000};
+		Distribution[] distributions = {Distribution.Uniform};
+		Algorithm[] algorithms = {Algorithm.QuickSort, Algorithm.HybridQuickSort};
+		main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/benchmark/", "");
+
+		// compare the pivot strategies on the inputs that are adversarial for the first item pivot.
+		// First without the depth limit is the original behaviour, and overflows the stack on the larger sizes.
+//		int[] sizes = {1000, 10000, 100000, 1000000};
+//		int[] maxRanges = {100000};
+//		Distribution[] distributions = {Distribution.Uniform, Distribution.Sorted, Distribution.Reversed, Distribution.AllEqual};
+//		Algorithm[] algorithms = {Algorithm.QuickSort, Algorithm.HybridQuickSort};
+//		main.setPivotStrategy(PivotStrategy.First);
+//		main.setDepthLimited(false);
+//		main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/pivot strategies/", "-original");
+//		main.setDepthLimited(true);
+//		for (PivotStrategy pivotStrategy : PivotStrategy.values()) {
+//			main.setPivotStrategy(pivotStrategy);
+//			main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/pivot strategies/", "-" + pivotStrategy);
+//		}
+
+		// compare two way and three way partitioning on arrays that are mostly duplicates
+//		int[] sizes = {1000, 10000, 100000, 1000000};
+//		int[] maxRanges = {10, 100, 1000};
+//		Distribution[] distributions = {Distribution.Uniform, Distribution.AllEqual};
+//		Algorithm[] algorithms = {Algorithm.QuickSort, Algorithm.ThreeWayQuickSort, Algorithm.HybridQuickSort};
+//		main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/duplicates/", "");
+//		main.setPartitionScheme(PartitionScheme.ThreeWay);
+//		main.benchmark(new Algorithm[] {Algorithm.HybridQuickSort}, sizes, maxRanges, distributions, modes, "tests/duplicates/", "-three way");
+
+		// compare the sorting network leaf with the insertion sort leaf, on the sizes where the leaves are most of the work
+//		int[] sizes = {10, 20, 100, 1000, 100000};
+//		int[] maxRanges = {100000};
+//		Distribution[] distributions = {Distribution.Uniform, Distribution.NearlySorted};
+//		Algorithm[] algorithms = {Algorithm.HybridQuickSort};
+//		for (LeafSort leafSort : LeafSort.values()) {
+//			main.setLeafSort(leafSort);
+//			main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/leaf sort/", "-" + leafSort);
+//		}
+
+		// compare RadixSort with the QuickSorts
+//		int[] sizes = {100, 1000, 10000, 100000, 1000000, 10000000};
+//		int[] maxRanges = {100000, Integer.MAX_VALUE - 1};
+//		Distribution[] distributions = {Distribution.Uniform};
+//		Algorithm[] algorithms = {Algorithm.QuickSort, Algorithm.HybridQuickSort, Algorithm.RadixSort};
+//		main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/radix sort/", "");
+
+		// compare the adaptive CountingSort with the QuickSorts on small spans of values
+//		int[] sizes = {10, 100, 1000, 10000, 100000, 1000000};
+//		int[] maxRanges = {10, 1000, 100000};
+//		Distribution[] distributions = {Distribution.Uniform};
+//		Algorithm[] algorithms = {Algorithm.HybridQuickSort, Algorithm.ThreeWayQuickSort, Algorithm.AdaptiveCountingSort};
+//		main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/counting sort/", "");
+
+		// every registered algorithm, including the curiosity sorts, on arrays small enough for BogobogoSort
+//		int[] sizes = {2, 4, 6};
+//		int[] maxRanges = {100000};
+//		Distribution[] distributions = {Distribution.Uniform};
+//		main.benchmark(main.getRegistry(), sizes, maxRanges, distributions, modes, "tests/registry/", "");
+
+		// rank the algorithms on every input shape
+//		int[] sizes = {1000, 100000};
+//		int[] maxRanges = {100000};
+//		Distribution[] distributions = Distribution.values();
+//		Algorithm[] algorithms = {Algorithm.QuickSort, Algorithm.HybridQuickSort, Algorithm.ThreeWayQuickSort, Algorithm.RadixSort, Algorithm.AdaptiveCountingSort};
+//		main.setSeed(42);
+//		main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/distributions/", "");
+
+		// sort files larger than the heap, comparing how much is sorted in memory at once. Run with a small -Xmx.
+//		long[] fileSizes = {10000000, 100000000, 500000000};
+//		int[] chunkSizes = {1000000, 10000000};
+//		main.benchmarkExternalSort(Algorithm.HybridQuickSort, fileSizes, chunkSizes, Integer.MAX_VALUE - 1, Distribution.Uniform, null, "tests/external sort/", "");
+
+		// compare sorting an off-heap buffer in place with copying it onto the heap first
+//		int[] sizes = {1000, 100000, 10000000};
+//		Algorithm[] algorithms = {Algorithm.QuickSort, Algorithm.HybridQuickSort};
+//		main.benchmarkOffHeap(algorithms, sizes, 100000, Distribution.Uniform, "tests/off heap/", "");
+
+		// compare sorting keys with a payload against sorting an array of pairs
+//		int[] sizes = {1000, 100000, 1000000};
+//		main.benchmarkKeyValue(sizes, 100000, Distribution.Uniform, "tests/key value/", "");
+
+		// compare sorting a batch of small arrays across the pool with sorting them one at a time
+//		int[] sizes = {10, 50, 100, 500};
+//		main.benchmarkBatch(sizes, 10000, 100000, Distribution.Uniform, modes, "tests/batch/", "");
+
+		// compare finding the first k items with sorting the whole array and slicing it
+//		int[] sizes = {10000, 1000000};
+//		int[] ks = {1, 10, 1000, 5000, 500000};
+//		main.benchmarkSelection(sizes, ks, 100000, Distribution.Uniform, "tests/selection/", "");
+
+		// the quadratic algorithms only on small arrays
+//		int[] sizes = {10, 20, 30, 40, 50, 60, 70, 80, 90};
+//		Algorithm[] algorithms = {Algorithm.InsertionSort, Algorithm.BubbleSort, Algorithm.QuickSort, Algorithm.HybridQuickSort};
+//		main.benchmark(algorithms, sizes, maxRanges, distributions, modes, "tests/benchmark/", "-smallest values");
+	}
+}
@@ -0,0 +1,49 @@
+import java.util.Arrays;
+
+/**
+ * BogoSorts a subarray of integers, by shuffling it until it is sorted.
+ * 
+ * The curiosity sorts only work on whole arrays, so a subarray is copied out, sorted, and copied back.
+ */
+public class BogoSortAlgorithm implements SortAlgorithm {
+	// the rig that holds the curiosity sorts
+	private CuriosityTestingRig curiosity;
+
+	@Override
+	public void setRig(TestingRig rig) {
+		if (rig instanceof CuriosityTestingRig) {
+			curiosity = (CuriosityTestingRig)rig;
+		}
+		else {
+			curiosity = new CuriosityTestingRig();
+		}
+	}
+
+	@Override
+	public String name() {
+		return "BogoSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		if (low == 0 && high == data.length-1) {
+			curiosity.bogoSort(data, comp);
+		}
+		else {
+			int[] subarray = Arrays.copyOfRange(data, low, high+1);
+			curiosity.bogoSort(subarray, comp);
+			System.arraycopy(subarray, 0, data, low, subarray.length);
+		}
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Constant;
+	}
+
+}
@@ -0,0 +1,53 @@
+import java.util.Arrays;
+
+/**
+ * BogobogoSorts a subarray of integers. Only use this on arrays of 6 items or fewer.
+ * 
+ * The curiosity sorts only work on whole arrays, so a subarray is copied out, sorted, and copied back.
+ */
+public class BogobogoSortAlgorithm implements SortAlgorithm {
+	// the rig that holds the curiosity sorts
+	private CuriosityTestingRig curiosity;
+
+	@Override
+	public void setRig(TestingRig rig) {
+		if (rig instanceof CuriosityTestingRig) {
+			curiosity = (CuriosityTestingRig)rig;
+		}
+		else {
+			curiosity = new CuriosityTestingRig();
+		}
+	}
+
+	@Override
+	public String name() {
+		return "BogobogoSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		if (high - low < 1) {
+			// bogobogoSort starts with a subset of 2 items, so there must be at least 2
+			return;
+		}
+		if (low == 0 && high == data.length-1) {
+			curiosity.bogobogoSort(data, comp);
+		}
+		else {
+			int[] subarray = Arrays.copyOfRange(data, low, high+1);
+			curiosity.bogobogoSort(subarray, comp);
+			System.arraycopy(subarray, 0, data, low, subarray.length);
+		}
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Constant;
+	}
+
+}
@@ -0,0 +1,49 @@
+import java.util.Arrays;
+
+/**
+ * BozoSorts a subarray of integers, by swapping random pairs of items until it is sorted.
+ * 
+ * The curiosity sorts only work on whole arrays, so a subarray is copied out, sorted, and copied back.
+ */
+public class BozoSortAlgorithm implements SortAlgorithm {
+	// the rig that holds the curiosity sorts
+	private CuriosityTestingRig curiosity;
+
+	@Override
+	public void setRig(TestingRig rig) {
+		if (rig instanceof CuriosityTestingRig) {
+			curiosity = (CuriosityTestingRig)rig;
+		}
+		else {
+			curiosity = new CuriosityTestingRig();
+		}
+	}
+
+	@Override
+	public String name() {
+		return "BozoSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		if (low == 0 && high == data.length-1) {
+			curiosity.bozoSort(data, comp);
+		}
+		else {
+			int[] subarray = Arrays.copyOfRange(data, low, high+1);
+			curiosity.bozoSort(subarray, comp);
+			System.arraycopy(subarray, 0, data, low, subarray.length);
+		}
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Constant;
+	}
+
+}
@@ -0,0 +1,27 @@
+
+/**
+ * BubbleSorts a subarray of integers.
+ */
+public class BubbleSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "BubbleSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.bubbleSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return true;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Constant;
+	}
+
+}
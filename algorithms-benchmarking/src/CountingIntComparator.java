@@ -0,0 +1,43 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the comparisons a sort makes, by wrapping the comparator it is given.
+ * 
+ * Only OperationCountingRig uses it, so the timed sorts never pay for the count.
+ * The count is atomic, as the parallel sorts compare from several threads at once.
+ */
+public class CountingIntComparator implements IntComparator {
+	// the comparator that decides the ordering
+	private IntComparator comparator;
+	private AtomicLong comparisons = new AtomicLong();
+	
+	/**
+	 * @param comparator Comparator for the ordering you wish to use.
+	 */
+	public CountingIntComparator(IntComparator comparator) {
+		this.comparator = comparator;
+	}
+
+	@Override
+	public int compare(int int1, int int2) {
+		comparisons.incrementAndGet();
+		return comparator.compare(int1, int2);
+	}
+	
+	
+	/**
+	 * @return The comparator that decides the ordering.
+	 */
+	public IntComparator getComparator() {
+		return comparator;
+	}
+	
+	
+	/**
+	 * @return The number of comparisons made since this was created.
+	 */
+	public long getComparisons() {
+		return comparisons.get();
+	}
+
+}
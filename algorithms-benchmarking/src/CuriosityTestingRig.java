@@ -1,5 +1,3 @@
-import java.util.Comparator;
-
 /**
  * This class contains all of the unnecessary methods that I created for my own curiosity.
  */
@@ -58,7 +56,7 @@ public class CuriosityTestingRig extends TestingRig {
 	 * @param comp Comparator for the ordering you wish to use.
 	 * @return True if these values are sorted, False if they are not.
 	 */
-	public boolean isSortedSubset(int[] data, int subsetSize, Comparator<Integer> comp) {
+	public boolean isSortedSubset(int[] data, int subsetSize, IntComparator comp) {
 		for (int i=1; i<subsetSize; i++) {
 			// if a single element is out of order, the subset is not sorted
 			if (comp.compare(data[i], data[i-1]) < 0) {
@@ -69,6 +67,7 @@ public class CuriosityTestingRig extends TestingRig {
 		return true;
 	}
 	
+	
 	/** 
 	 * BogoSorts an array of integers.
 	 * 
@@ -78,7 +77,7 @@ public class CuriosityTestingRig extends TestingRig {
 	 * @param data The array you wish to sort.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public void bogoSort(int[] data, Comparator<Integer> comp) {
+	public void bogoSort(int[] data, IntComparator comp) {
 		// shuffle the list until it is sorted.
 		// Note: this implementation can actually make it one of the fasted algorithms for an already sorted list.
 		while (!isSorted(data, comp)) {
@@ -86,6 +85,7 @@ public class CuriosityTestingRig extends TestingRig {
 		}
 	}
 	
+	
 	/** 
 	 * BozoSorts an array of integers.
 	 * 
@@ -95,7 +95,7 @@ public class CuriosityTestingRig extends TestingRig {
 	 * @param data The array you wish to sort.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public void bozoSort(int[] data, Comparator<Integer> comp) {
+	public void bozoSort(int[] data, IntComparator comp) {
 		// swap random pairs of elements until the array is sorted.
 		// Note: this implementation can actually make it one of the fasted algorithms for an already sorted list.
 		while (!isSorted(data, comp)) {
@@ -114,7 +114,10 @@ public class CuriosityTestingRig extends TestingRig {
 	 * @param data The array you wish to sort.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public void bogobogoSort(int[] data, Comparator<Integer> comp) {
+	public void bogobogoSort(int[] data, IntComparator comp) {
+		if (data.length < 2) {
+			return;
+		}
 		// start with a subset of size 2.
 		// BogobogoSort recursively sorts subsets of the array using bogosort.
 		// If at any point a subset is not sorted, it starts the process again.
@@ -137,7 +140,7 @@ public class CuriosityTestingRig extends TestingRig {
 	 * @param subsetSize Size of the current subset that bogobogo sort is working on.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	private boolean bogobogoSort(int[] data, int subsetSize, Comparator<Integer> comp) {
+	private boolean bogobogoSort(int[] data, int subsetSize, IntComparator comp) {
 		// shuffle the current subset
 		shuffleSubset(data, subsetSize);
 		
@@ -0,0 +1,283 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the input arrays for the tests.
+ * 
+ * Every value comes from a SplittableRandom with a known seed,
+ * so a run can be repeated exactly by creating a generator with the same seed.
+ * SplittableRandom is also much faster than Math.random(), which is synchronized.
+ */
+public class DataGenerator {
+	// the seed the generator was created with, so it can be recorded with the results
+	private long seed;
+	private SplittableRandom random;
+	
+	// number of random swaps made to a NearlySorted array. -1 swaps 1% of the items.
+	private int swaps = -1;
+	// number of ascending runs in a Sawtooth array
+	private int teeth = 8;
+	// number of different values in a FewUnique array
+	private int uniqueValues = 10;
+	// how skewed a Zipf array is. Larger exponents make small values more common.
+	private double zipfExponent = 1.0;
+	// fraction of the items in a generated array of doubles replaced by NaN, -0.0 or 0.0
+	private double specialDoubles = 0;
+	// largest number of different values a Zipf array uses, as the table of probabilities holds one entry per value
+	private int maxZipfValues = 1 << 20;
+	
+	// the cumulative probabilities of the last Zipf table, kept so it is not recalculated for every array
+	private double[] zipfTable;
+	private int zipfTableValues;
+	private double zipfTableExponent;
+	
+	/**
+	 * @param seed The seed for the random number generator.
+	 */
+	public DataGenerator(long seed) {
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+	}
+	
+	/**
+	 * @return The seed the generator was created with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Restarts the random number generator from the seed, so the same arrays are generated again.
+	 */
+	public void reset() {
+		random = new SplittableRandom(seed);
+	}
+	
+	/**
+	 * @param swaps Number of random swaps made to a NearlySorted array. -1 swaps 1% of the items.
+	 */
+	public void setSwaps(int swaps) {
+		this.swaps = swaps;
+	}
+	
+	/**
+	 * @param teeth Number of ascending runs in a Sawtooth array.
+	 */
+	public void setTeeth(int teeth) {
+		this.teeth = teeth;
+	}
+	
+	/**
+	 * @param uniqueValues Number of different values in a FewUnique array.
+	 */
+	public void setUniqueValues(int uniqueValues) {
+		this.uniqueValues = uniqueValues;
+	}
+	
+	/**
+	 * @param zipfExponent How skewed a Zipf array is. Larger exponents make small values more common.
+	 */
+	public void setZipfExponent(double zipfExponent) {
+		this.zipfExponent = zipfExponent;
+	}
+	
+	/**
+	 * @param specialDoubles Fraction of the items in a generated array of doubles replaced by NaN, -0.0 or 0.0.
+	 */
+	public void setSpecialDoubles(double specialDoubles) {
+		this.specialDoubles = specialDoubles;
+	}
+	
+	
+	/**
+	 * Generates an array of integers with a given shape.
+	 * 
+	 * Each element in the array is between 0 and maxRange (inclusive).
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange Maximum value of an integer in the array.
+	 * @param distribution The shape of the generated array.
+	 * @return A generated array of integers.
+	 */
+	public int[] generate(int size, int maxRange, Distribution distribution) {
+		int[] dataset = new int[size];
+		switch (distribution) {
+		case Uniform:
+			fillUniform(dataset, maxRange);
+			break;
+		case Sorted:
+			fillUniform(dataset, maxRange);
+			Arrays.sort(dataset);
+			break;
+		case Reversed:
+			fillUniform(dataset, maxRange);
+			Arrays.sort(dataset);
+			reverse(dataset, 0, size-1);
+			break;
+		case NearlySorted:
+			fillUniform(dataset, maxRange);
+			Arrays.sort(dataset);
+			int numSwaps = swaps < 0 ? Math.max(1, size/100) : swaps;
+			for (int i=0; i<numSwaps && size > 0; i++) {
+				swap(dataset, random.nextInt(size), random.nextInt(size));
+			}
+			break;
+		case Sawtooth:
+			fillUniform(dataset, maxRange);
+			// sort each tooth separately
+			int toothSize = Math.max(1, (size + teeth - 1) / teeth);
+			for (int start=0; start<size; start+=toothSize) {
+				Arrays.sort(dataset, start, Math.min(size, start + toothSize));
+			}
+			break;
+		case OrganPipe:
+			fillUniform(dataset, maxRange);
+			// ascending first half, descending second half
+			Arrays.sort(dataset, 0, size/2);
+			Arrays.sort(dataset, size/2, size);
+			reverse(dataset, size/2, size-1);
+			break;
+		case FewUnique:
+			int[] values = new int[Math.max(1, uniqueValues)];
+			fillUniform(values, maxRange);
+			for (int i=0; i<size; i++) {
+				dataset[i] = values[random.nextInt(values.length)];
+			}
+			break;
+		case Zipf:
+			fillZipf(dataset, maxRange);
+			break;
+		case AllEqual:
+			Arrays.fill(dataset, (int)random.nextLong(maxRange + 1L));
+			break;
+		}
+		return dataset;
+	}
+	
+	
+	/**
+	 * Generates an array of longs with a given shape.
+	 * 
+	 * The array is generated as integers, then each value is spread over the positive longs,
+	 * so the order and the duplicates of the integers are kept but the upper 32 bits are used too.
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange Number of different values (minus one) in the array.
+	 * @param distribution The shape of the generated array.
+	 * @return A generated array of longs.
+	 */
+	public long[] generateLongs(int size, int maxRange, Distribution distribution) {
+		int[] shape = generate(size, maxRange, distribution);
+		long scale = Long.MAX_VALUE / (maxRange + 1L);
+		long[] dataset = new long[size];
+		for (int i=0; i<size; i++) {
+			dataset[i] = shape[i] * scale;
+		}
+		return dataset;
+	}
+	
+	
+	/**
+	 * Generates an array of doubles with a given shape.
+	 * 
+	 * The array is generated as integers, then each value is scaled to between -1 (inclusive) and 1 (exclusive),
+	 * so the order and the duplicates of the integers are kept.
+	 * If specialDoubles is set, that fraction of the items is then replaced by NaN, -0.0 or 0.0.
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange Number of different values (minus one) in the array.
+	 * @param distribution The shape of the generated array.
+	 * @return A generated array of doubles.
+	 */
+	public double[] generateDoubles(int size, int maxRange, Distribution distribution) {
+		int[] shape = generate(size, maxRange, distribution);
+		double scale = 2.0 / (maxRange + 1L);
+		double[] special = {Double.NaN, -0.0, 0.0};
+		double[] dataset = new double[size];
+		for (int i=0; i<size; i++) {
+			dataset[i] = shape[i] * scale - 1;
+			if (specialDoubles > 0 && random.nextDouble() < specialDoubles) {
+				dataset[i] = special[random.nextInt(special.length)];
+			}
+		}
+		return dataset;
+	}
+	
+	
+	/**
+	 * Fills an array with random values between 0 and maxRange (inclusive).
+	 * 
+	 * @param dataset The array to fill.
+	 * @param maxRange Maximum value of an integer in the array.
+	 */
+	private void fillUniform(int[] dataset, int maxRange) {
+		// long, as maxRange+1 overflows an int when maxRange is Integer.MAX_VALUE
+		long bound = maxRange + 1L;
+		for (int i=0; i<dataset.length; i++) {
+			dataset[i] = (int)random.nextLong(bound);
+		}
+	}
+	
+	
+	/**
+	 * Fills an array with values between 0 and maxRange (inclusive) following Zipf's law.
+	 * 
+	 * The value v is chosen with probability proportional to 1/(v+1)^zipfExponent.
+	 * 
+	 * @param dataset The array to fill.
+	 * @param maxRange Maximum value of an integer in the array.
+	 */
+	private void fillZipf(int[] dataset, int maxRange) {
+		int numValues = (int)Math.min(maxRange + 1L, maxZipfValues);
+		if (zipfTable == null || zipfTableValues != numValues || zipfTableExponent != zipfExponent) {
+			// cumulative probabilities, so a value can be found with a binary search
+			zipfTable = new double[numValues];
+			double total = 0;
+			for (int value=0; value<numValues; value++) {
+				total += 1 / Math.pow(value + 1, zipfExponent);
+				zipfTable[value] = total;
+			}
+			for (int value=0; value<numValues; value++) {
+				zipfTable[value] /= total;
+			}
+			zipfTableValues = numValues;
+			zipfTableExponent = zipfExponent;
+		}
+		
+		for (int i=0; i<dataset.length; i++) {
+			int index = Arrays.binarySearch(zipfTable, random.nextDouble());
+			// a negative index is -(insertion point)-1, and the insertion point is the value
+			dataset[i] = Math.min(numValues-1, index >= 0 ? index : -index - 1);
+		}
+	}
+	
+	
+	/**
+	 * Reverses a subarray.
+	 * 
+	 * @param data Array of integers.
+	 * @param low The smallest index of the subarray.
+	 * @param high The largest index of the subarray.
+	 */
+	private void reverse(int[] data, int low, int high) {
+		// swap the ends towards the middle
+		while (low < high) {
+			swap(data, low, high);
+			low++;
+			high--;
+		}
+	}
+	
+	
+	/** Swap the location of two values in an array.
+	 * 
+	 * @param data Array of integers.
+	 * @param index1 One of the indexes you wish to swap.
+	 * @param index2 The other index you wish to swap.
+	 */
+	private void swap(int[] data, int index1, int index2) {
+		int temp = data[index1];
+		data[index1] = data[index2];
+		data[index2] = temp;
+	}
+}
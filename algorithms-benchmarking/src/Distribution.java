@@ -0,0 +1,22 @@
+
+/**
+ * The shape of the input arrays generated for a test.
+ * 
+ * Uniform is the original behaviour, each value is random.
+ * NearlySorted is sorted, then a few random pairs of items are swapped.
+ * Sawtooth is several ascending runs one after the other.
+ * OrganPipe ascends to the middle of the array, then descends.
+ * FewUnique only uses a handful of different values.
+ * Zipf is skewed so small values are far more common than large values.
+ */
+public enum Distribution {
+	Uniform,
+	Sorted,
+	Reversed,
+	NearlySorted,
+	Sawtooth,
+	OrganPipe,
+	FewUnique,
+	Zipf,
+	AllEqual
+}
@@ -0,0 +1,396 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorts arrays of doubles (e.g. scores) from smallest to largest without boxing.
+ * 
+ * The order is the same as Double.compare and Arrays.sort: -0.0 comes before 0.0, and NaN comes after everything else.
+ * Comparing with < would be wrong for these, as -0.0 < 0.0 is false and every comparison with NaN is false.
+ * Instead of using Double.compare for every comparison, the NaNs are moved to the end first, the rest are sorted with <,
+ * and then the zeros (which < treats as equal, so they end up next to each other) are put back in order.
+ * 
+ * These are the same algorithms as the int[] versions in TestingRig, and use the rig's pivot strategy, depth limit and insertion sort cutoff.
+ */
+public class DoubleSort {
+	// the rig that holds the settings of the sorting algorithms
+	private TestingRig rig;
+
+	/**
+	 * @param rig The rig that holds the settings of the sorting algorithms.
+	 */
+	public DoubleSort(TestingRig rig) {
+		this.rig = rig;
+	}
+
+
+	/**
+	 * InsertionSorts an array of doubles.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void insertionSort(double[] data) {
+		insertionSort(data, 0, data.length-1);
+	}
+
+
+	/**
+	 * InsertionSorts a subarray of doubles.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array in the partition.
+	 * @param high The largest index of the array in the partition.
+	 */
+	public void insertionSort(double[] data, int low, int high) {
+		int last = moveNaNsToEnd(data, low, high);
+		insertionSortNumbers(data, low, last);
+		orderZeros(data, low, last);
+	}
+
+
+	/**
+	 * QuickSorts an array of doubles.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void quickSort(double[] data) {
+		quickSort(data, 0, data.length-1);
+	}
+
+
+	/**
+	 * QuickSorts a subarray of doubles.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 */
+	public void quickSort(double[] data, int low, int high) {
+		int last = moveNaNsToEnd(data, low, high);
+		quickSort(data, low, last, rig.depthLimit(last - low + 1));
+		orderZeros(data, low, last);
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts an array of doubles.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void hybridQuickSort(double[] data) {
+		hybridQuickSort(data, 0, data.length-1);
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts a subarray of doubles.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 */
+	public void hybridQuickSort(double[] data, int low, int high) {
+		int last = moveNaNsToEnd(data, low, high);
+		hybridQuickSort(data, low, last, rig.depthLimit(last - low + 1));
+		orderZeros(data, low, last);
+	}
+
+
+	/**
+	 * Moves every NaN to the end of a subarray, so the rest can be compared with <.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the subarray.
+	 * @param high The largest index of the subarray.
+	 * @return The index of the last item that is not NaN.
+	 */
+	private int moveNaNsToEnd(double[] data, int low, int high) {
+		// NaN is the only value that is not equal to itself
+		while (high >= low && data[high] != data[high]) {
+			high--;
+		}
+		for (int i=high-1; i>=low; i--) {
+			double item = data[i];
+			if (item != item) {
+				data[i] = data[high];
+				data[high] = item;
+				high--;
+			}
+		}
+		return high;
+	}
+
+
+	/**
+	 * Puts the -0.0s before the 0.0s in a sorted subarray with no NaNs.
+	 * 
+	 * < treats -0.0 and 0.0 as equal, so they are already next to each other, just not in order.
+	 * 
+	 * @param data A sorted array.
+	 * @param low The smallest index of the subarray.
+	 * @param high The largest index of the subarray.
+	 */
+	private void orderZeros(double[] data, int low, int high) {
+		// binary search for the first item that is not negative
+		int start = low;
+		int end = high + 1;
+		while (start < end) {
+			int mid = (start + end) >>> 1;
+			if (data[mid] < 0.0) {
+				start = mid + 1;
+			}
+			else {
+				end = mid;
+			}
+		}
+
+		int negativeZeros = 0;
+		int zerosEnd = start;
+		while (zerosEnd <= high && data[zerosEnd] == 0.0) {
+			// the sign bit is the only difference between -0.0 and 0.0
+			if (Double.doubleToRawLongBits(data[zerosEnd]) < 0) {
+				negativeZeros++;
+			}
+			zerosEnd++;
+		}
+		for (int i=start; i<zerosEnd; i++) {
+			data[i] = i < start + negativeZeros ? -0.0 : 0.0;
+		}
+	}
+
+
+	/**
+	 * InsertionSorts a subarray of doubles with no NaNs.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array in the partition.
+	 * @param high The largest index of the array in the partition.
+	 */
+	private void insertionSortNumbers(double[] data, int low, int high) {
+		// for each item, from low, insert into place in the sorted region (low..i-1)
+		for (int i=low+1; i<=high; i++) {
+			double item = data[i];
+			int place = i;
+			while (place > low  &&  item < data[place-1]) {
+				data[place] = data[place-1];
+				place--;
+			}
+			data[place] = item;
+		}
+	}
+
+
+	/**
+	 * QuickSorts a subarray of doubles with no NaNs, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	private void quickSort(double[] data, int low, int high, int depth) {
+		if (high - low < 1) {
+			// only one item to sort, so it is already sorted.
+			return;
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, low, high);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = partition(data, low, high);
+
+			// mid is already in the correct position, so do not try to sort it again
+			quickSort(data, low, mid-1, depth-1);
+			quickSort(data, mid+1, high, depth-1);
+		}
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts a subarray of doubles with no NaNs, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	private void hybridQuickSort(double[] data, int low, int high, int depth) {
+		if (high - low < 1) {
+			// only one item to sort, so it is already sorted.
+			return;
+		}
+		else if (high - low < rig.insertionSortCutoff) {
+			// insertionSortCutoff or less items to sort, so use insertion sort.
+			insertionSortNumbers(data, low, high);
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, low, high);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = partition(data, low, high);
+
+			// mid is already in the correct position, so do not try to sort it again
+			hybridQuickSort(data, low, mid-1, depth-1);
+			hybridQuickSort(data, mid+1, high, depth-1);
+		}
+	}
+
+
+	/**
+	 * HeapSorts a subarray of doubles with no NaNs.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include.
+	 * @param high The largest index of the array you want to include.
+	 */
+	private void heapSort(double[] data, int low, int high) {
+		int size = high - low + 1;
+		// build the heap, starting from the last item that has children
+		for (int i=size/2 - 1; i>=0; i--) {
+			siftDown(data, low, i, size);
+		}
+		// move the largest item to the end of the heap, then shrink the heap
+		for (int end=size-1; end>0; end--) {
+			swap(data, low, low+end);
+			siftDown(data, low, 0, end);
+		}
+	}
+
+
+	/**
+	 * Moves an item down a max heap until it is larger than both of its children.
+	 * 
+	 * @param data Array holding the heap.
+	 * @param offset Index of the root of the heap in the array.
+	 * @param index Position in the heap of the item to be moved.
+	 * @param size Number of items in the heap.
+	 */
+	private void siftDown(double[] data, int offset, int index, int size) {
+		double item = data[offset+index];
+		while (2*index + 1 < size) {
+			int child = 2*index + 1;
+			// use the larger of the two children
+			if (child+1 < size && data[offset+child+1] > data[offset+child]) {
+				child++;
+			}
+			if (data[offset+child] <= item) {
+				break;
+			}
+			data[offset+index] = data[offset+child];
+			index = child;
+		}
+		data[offset+index] = item;
+	}
+
+
+	/**
+	 * Partitions the data for quicksort, the same as TestingRig.partition.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @return The final index of the pivot.
+	 */
+	private int partition(double[] data, int min, int max) {
+		swap(data, min, choosePivot(data, min, max));
+		double pivot = data[min];
+		int scan = min+1;
+		int mark = scan;
+		while (scan <= max) {
+			if (data[scan] < pivot) {
+				swap(data, scan, mark);
+				mark++;
+			}
+			scan++;
+		}
+		mark--;
+		swap(data, min, mark);
+		return mark;
+	}
+
+
+	/**
+	 * Chooses the index of the pivot for partition, using the rig's pivot strategy.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @return Index of the pivot.
+	 */
+	private int choosePivot(double[] data, int min, int max) {
+		switch (rig.pivotStrategy) {
+		case MedianOfThree:
+			return medianOfThree(data, min, min + (max-min)/2, max);
+		case Ninther:
+			if (max - min < 40) {
+				// too few items for the ninther to be worth the extra comparisons
+				return medianOfThree(data, min, min + (max-min)/2, max);
+			}
+			// median of the medians of three evenly spaced groups of three
+			int step = (max - min)/8;
+			int mid = min + (max-min)/2;
+			int first = medianOfThree(data, min, min + step, min + 2*step);
+			int second = medianOfThree(data, mid - step, mid, mid + step);
+			int third = medianOfThree(data, max - 2*step, max - step, max);
+			return medianOfThree(data, first, second, third);
+		case Random:
+			return min + ThreadLocalRandom.current().nextInt(max - min + 1);
+		default:
+			return min;
+		}
+	}
+
+
+	/**
+	 * Finds which of three indexes holds the median of their values.
+	 * 
+	 * @param data Array of doubles with no NaNs.
+	 * @param a The first index.
+	 * @param b The second index.
+	 * @param c The third index.
+	 * @return The index holding the median value.
+	 */
+	private int medianOfThree(double[] data, int a, int b, int c) {
+		if (data[a] < data[b]) {
+			if (data[b] < data[c]) {
+				return b;
+			}
+			return data[a] < data[c] ? c : a;
+		}
+		if (data[a] < data[c]) {
+			return a;
+		}
+		return data[b] < data[c] ? c : b;
+	}
+
+
+	/**
+	 * Checks if an array of doubles is sorted in the same order as Double.compare.
+	 * 
+	 * @param data The array you wish to check.
+	 * @return True if the array is sorted, False if it is not.
+	 */
+	public boolean isSorted(double[] data) {
+		for (int i=1; i<data.length; i++) {
+			if (Double.compare(data[i], data[i-1]) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/** Swap the location of two values in an array.
+	 * 
+	 * @param data Array of doubles.
+	 * @param index1 One of the indexes you wish to swap.
+	 * @param index2 The other index you wish to swap.
+	 */
+	private void swap(double[] data, int index1, int index2) {
+		double temp = data[index1];
+		data[index1] = data[index2];
+		data[index2] = temp;
+	}
+}
@@ -0,0 +1,225 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Sorts a binary file of integers that is too large to fit on the heap.
+ * 
+ * The file is read one chunk at a time. Each chunk is sorted in memory by a SortAlgorithm and written to a temporary file (a run).
+ * The runs are then merged into the output file, using a heap to find the smallest head of all of the runs.
+ * If there are more runs than maxFanIn, groups of runs are merged into longer runs first, so only maxFanIn files are open at once.
+ * All of the reading and writing is double buffered, so the disk is busy while the integers are being sorted or merged.
+ */
+public class ExternalSort {
+	// sorts each chunk in memory
+	private SortAlgorithm algorithm;
+	private IntComparator comp;
+	// number of integers sorted in memory at once
+	private int chunkSize;
+	// size in bytes of each of the two buffers each file is read or written through
+	private int bufferSize = 1 << 16;
+	// largest number of runs merged at once
+	private int maxFanIn = 128;
+	// directory the runs are written to. null uses the system temporary directory.
+	private File tempDirectory;
+
+	/**
+	 * @param algorithm Sorts each chunk in memory.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param chunkSize Number of integers sorted in memory at once.
+	 */
+	public ExternalSort(SortAlgorithm algorithm, IntComparator comp, int chunkSize) {
+		this.algorithm = algorithm;
+		this.comp = comp;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param bufferSize Size in bytes of each of the two buffers each file is read or written through.
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * @param maxFanIn Largest number of runs merged at once. At least 2.
+	 */
+	public void setMaxFanIn(int maxFanIn) {
+		this.maxFanIn = Math.max(2, maxFanIn);
+	}
+
+	/**
+	 * @param tempDirectory Directory the runs are written to. null uses the system temporary directory.
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+
+	/**
+	 * Sorts a binary file of integers.
+	 * 
+	 * @param input The file to sort. It is not changed.
+	 * @param output The file the sorted integers are written to.
+	 * @throws IOException If a file cannot be read or written.
+	 */
+	public void sort(File input, File output) throws IOException {
+		ArrayList<File> runs = writeRuns(input);
+		try {
+			// merge groups of runs into longer runs until they can all be merged at once
+			while (runs.size() > maxFanIn) {
+				ArrayList<File> longerRuns = new ArrayList<File>();
+				for (int start=0; start<runs.size(); start+=maxFanIn) {
+					ArrayList<File> group = new ArrayList<File>(runs.subList(start, Math.min(runs.size(), start + maxFanIn)));
+					File longerRun = createRun();
+					longerRuns.add(longerRun);
+					merge(group, longerRun);
+					deleteRuns(group);
+				}
+				runs = longerRuns;
+			}
+			merge(runs, output);
+		}
+		finally {
+			deleteRuns(runs);
+		}
+	}
+
+
+	/**
+	 * Sorts the input file one chunk at a time, writing each sorted chunk to its own run.
+	 * 
+	 * @param input The file to sort.
+	 * @return The runs, in the order they were written.
+	 * @throws IOException If a file cannot be read or written.
+	 */
+	private ArrayList<File> writeRuns(File input) throws IOException {
+		ArrayList<File> runs = new ArrayList<File>();
+		// one chunk is reused for every run
+		int[] chunk = new int[chunkSize];
+		try (IntFileReader reader = new IntFileReader(input, bufferSize)) {
+			int count;
+			while ((count = reader.read(chunk, 0, chunkSize)) > 0) {
+				algorithm.sort(chunk, 0, count-1, comp);
+				File run = createRun();
+				runs.add(run);
+				try (IntFileWriter writer = new IntFileWriter(run, bufferSize)) {
+					writer.write(chunk, 0, count);
+				}
+			}
+		}
+		catch (IOException error) {
+			deleteRuns(runs);
+			throw error;
+		}
+		return runs;
+	}
+
+
+	/**
+	 * Merges sorted runs into one sorted file.
+	 * 
+	 * The head of each run is kept in a heap, ordered by comp. The smallest head is written out and replaced by the next item of its run.
+	 * The heap is stored in two parallel int arrays so no items are boxed.
+	 * 
+	 * @param runs The sorted runs.
+	 * @param output The file the merged runs are written to.
+	 * @throws IOException If a file cannot be read or written.
+	 */
+	private void merge(ArrayList<File> runs, File output) throws IOException {
+		IntFileReader[] readers = new IntFileReader[runs.size()];
+		// heapValues[i] is the head of run heapRuns[i]
+		int[] heapValues = new int[runs.size()];
+		int[] heapRuns = new int[runs.size()];
+		int heapSize = 0;
+
+		try (IntFileWriter writer = new IntFileWriter(output, bufferSize)) {
+			for (int run=0; run<runs.size(); run++) {
+				readers[run] = new IntFileReader(runs.get(run), bufferSize);
+				if (readers[run].hasNext()) {
+					heapValues[heapSize] = readers[run].next();
+					heapRuns[heapSize] = run;
+					heapSize++;
+				}
+			}
+			// build the heap, starting from the last item that has children
+			for (int i=heapSize/2 - 1; i>=0; i--) {
+				siftDown(heapValues, heapRuns, i, heapSize);
+			}
+
+			while (heapSize > 0) {
+				writer.write(heapValues[0]);
+				IntFileReader reader = readers[heapRuns[0]];
+				if (reader.hasNext()) {
+					heapValues[0] = reader.next();
+				}
+				else {
+					// this run is finished, so replace it with the last run in the heap
+					heapSize--;
+					heapValues[0] = heapValues[heapSize];
+					heapRuns[0] = heapRuns[heapSize];
+				}
+				siftDown(heapValues, heapRuns, 0, heapSize);
+			}
+		}
+		finally {
+			for (IntFileReader reader : readers) {
+				if (reader != null) {
+					reader.close();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Moves a run down the heap until its head is smaller than the heads of both of its children.
+	 * 
+	 * @param heapValues The head of each run in the heap.
+	 * @param heapRuns The run each head came from.
+	 * @param index Position in the heap of the run to be moved.
+	 * @param size Number of runs in the heap.
+	 */
+	private void siftDown(int[] heapValues, int[] heapRuns, int index, int size) {
+		int value = heapValues[index];
+		int run = heapRuns[index];
+		while (2*index + 1 < size) {
+			int child = 2*index + 1;
+			// use the smaller of the two children
+			if (child+1 < size && comp.compare(heapValues[child+1], heapValues[child]) < 0) {
+				child++;
+			}
+			if (comp.compare(heapValues[child], value) >= 0) {
+				break;
+			}
+			heapValues[index] = heapValues[child];
+			heapRuns[index] = heapRuns[child];
+			index = child;
+		}
+		heapValues[index] = value;
+		heapRuns[index] = run;
+	}
+
+
+	/**
+	 * @return A new temporary file for a run.
+	 * @throws IOException If the file cannot be created.
+	 */
+	private File createRun() throws IOException {
+		File run = File.createTempFile("run", ".bin", tempDirectory);
+		run.deleteOnExit();
+		return run;
+	}
+
+
+	/**
+	 * Deletes runs that are no longer needed.
+	 * 
+	 * @param runs The runs to delete.
+	 */
+	private void deleteRuns(ArrayList<File> runs) {
+		for (File run : runs) {
+			run.delete();
+		}
+	}
+}
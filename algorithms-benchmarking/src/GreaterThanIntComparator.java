@@ -0,0 +1,12 @@
+
+/**
+ * Orders integers from largest to smallest, without boxing them.
+ */
+public class GreaterThanIntComparator implements IntComparator {
+
+	@Override
+	public int compare(int int1, int int2) {
+		return Integer.compare(int2, int1);
+	}
+
+}
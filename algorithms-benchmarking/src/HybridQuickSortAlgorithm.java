@@ -0,0 +1,27 @@
+
+/**
+ * Hybrid-QuickSorts a subarray of integers, insertion sorting the small partitions.
+ */
+public class HybridQuickSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "HybridQuickSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.hybridQuickSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Logarithmic;
+	}
+
+}
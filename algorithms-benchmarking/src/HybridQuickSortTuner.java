@@ -0,0 +1,83 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Finds the best insertion sort cutoff and pivot strategy for hybridQuickSort on this machine.
+ * 
+ * The best cutoff depends on the cache sizes and JVM version, so guessing it by hand (as the "vs hybridsort" tests did)
+ * does not carry over between machines. Every combination of cutoff and pivot strategy is benchmarked,
+ * and the fastest is saved to a file that TestingRig loads when it is created.
+ */
+public class HybridQuickSortTuner {
+	// the benchmark used to measure each combination
+	private BenchmarkRig benchmark;
+	
+	/**
+	 * @param benchmark The benchmark used to measure each combination.
+	 */
+	public HybridQuickSortTuner(BenchmarkRig benchmark) {
+		this.benchmark = benchmark;
+	}
+	
+	
+	/**
+	 * Benchmarks hybridQuickSort with every combination of cutoff and pivot strategy, and saves the fastest.
+	 * 
+	 * @param cutoffs The insertion sort cutoffs to try.
+	 * @param pivotStrategies The pivot strategies to try.
+	 * @param size The size of the arrays to tune for.
+	 * @param maxRange The maximum value of the integers in the arrays to tune for.
+	 * @param distribution The shape of the arrays to tune for.
+	 * @param fileName The file the fastest settings are saved to.
+	 */
+	public void tune(int[] cutoffs, PivotStrategy[] pivotStrategies, int size, int maxRange, Distribution distribution, String fileName) {
+		int bestCutoff = cutoffs[0];
+		PivotStrategy bestPivotStrategy = pivotStrategies[0];
+		double bestThroughput = 0;
+		
+		for (PivotStrategy pivotStrategy : pivotStrategies) {
+			for (int cutoff : cutoffs) {
+				benchmark.setPivotStrategy(pivotStrategy);
+				benchmark.setInsertionSortCutoff(cutoff);
+				double throughput = benchmark.measureThroughput(Algorithm.HybridQuickSort, size, maxRange, distribution);
+				System.out.println(pivotStrategy + " " + cutoff + ": " + throughput + " arrays/s");
+				
+				if (throughput > bestThroughput) {
+					bestThroughput = throughput;
+					bestCutoff = cutoff;
+					bestPivotStrategy = pivotStrategy;
+				}
+			}
+		}
+		System.out.println("best: " + bestPivotStrategy + " " + bestCutoff);
+		
+		// the machine and data are saved with the settings, as the settings are only the best for them
+		Properties tuning = new Properties();
+		tuning.setProperty("insertionSortCutoff", "" + bestCutoff);
+		tuning.setProperty("pivotStrategy", bestPivotStrategy.name());
+		tuning.setProperty("throughput", "" + bestThroughput);
+		tuning.setProperty("size", "" + size);
+		tuning.setProperty("maxRange", "" + maxRange);
+		tuning.setProperty("distribution", distribution.name());
+		tuning.setProperty("java.version", System.getProperty("java.version"));
+		tuning.setProperty("os.arch", System.getProperty("os.arch"));
+		tuning.setProperty("availableProcessors", "" + Runtime.getRuntime().availableProcessors());
+		try (FileOutputStream output = new FileOutputStream(new File(fileName))) {
+			tuning.store(output, "hybridQuickSort settings found by HybridQuickSortTuner");
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+		}
+	}
+	
+	
+	public static void main(String[] args) {
+		HybridQuickSortTuner tuner = new HybridQuickSortTuner(new BenchmarkRig(3, 5, 200, 1));
+		int[] cutoffs = {4, 8, 12, 16, 20, 24, 32, 48, 64};
+		
+		// tune for the arrays the "vs hybridsort spread" tests used
+		tuner.tune(cutoffs, PivotStrategy.values(), 100000, 100000, Distribution.Uniform, TestingRig.TUNING_FILE);
+	}
+}
@@ -0,0 +1,274 @@
+
+/**
+ * Stable merge sort for arrays of integers that needs no buffer proportional to the array.
+ * 
+ * Blocks of BLOCK_SIZE items are insertion sorted, then merged bottom-up in pairs of doubling width.
+ * Each merge is done in place by SymMerge (Kim and Kutzner): it binary searches for a split that lets a rotation
+ * move the middle of the two runs into place, then merges each side of the rotation the same way.
+ * That takes O(n log n) comparisons and O(n log^2 n) swaps, with only O(log n) recursion.
+ * 
+ * An optional external buffer can be given. Any merge whose shorter run fits in it is done the usual way through the buffer instead,
+ * which is much faster, so even a buffer of a few thousand items removes most of the rotations.
+ */
+public class InPlaceMergeSort {
+	// blocks of this many items are insertion sorted before the merging starts
+	private static final int BLOCK_SIZE = 20;
+
+	// the rig whose insertionSort and swap are used
+	private TestingRig rig;
+	// the optional external buffer, which may be empty
+	private int[] buffer;
+
+	/**
+	 * @param rig The rig whose insertionSort sorts the first blocks.
+	 */
+	public InPlaceMergeSort(TestingRig rig) {
+		this(rig, 0);
+	}
+
+	/**
+	 * @param rig The rig whose insertionSort sorts the first blocks.
+	 * @param bufferSize Number of items in the external buffer. 0 sorts with O(1) extra memory.
+	 */
+	public InPlaceMergeSort(TestingRig rig, int bufferSize) {
+		this.rig = rig;
+		setBufferSize(bufferSize);
+	}
+
+
+	/**
+	 * Sets the size of the external buffer.
+	 * 
+	 * @param bufferSize Number of items in the external buffer. 0 sorts with O(1) extra memory.
+	 */
+	public void setBufferSize(int bufferSize) {
+		if (bufferSize < 0) {
+			throw new IllegalArgumentException("bufferSize cannot be negative, not " + bufferSize);
+		}
+		buffer = new int[bufferSize];
+	}
+
+
+	/**
+	 * @return Number of items in the external buffer.
+	 */
+	public int getBufferSize() {
+		return buffer.length;
+	}
+
+
+	/**
+	 * Sorts a subarray of integers.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		int size = high - low + 1;
+		for (int start=low; start<=high; start+=BLOCK_SIZE) {
+			rig.insertionSort(data, start, Math.min(start + BLOCK_SIZE - 1, high), comp);
+		}
+		// merge the sorted runs in pairs, doubling their width each pass. The bounds are exclusive at the end.
+		for (int width=BLOCK_SIZE; width<size; width*=2) {
+			for (int start=low; start + width <= high; start += 2*width) {
+				merge(data, start, start + width, (int)Math.min((long)start + 2*width, high + 1), comp);
+			}
+		}
+	}
+
+
+	/**
+	 * Merges two adjacent sorted runs, data[start..mid-1] and data[mid..end-1].
+	 * 
+	 * @param data Array holding the runs.
+	 * @param start Index of the first item of the first run.
+	 * @param mid Index of the first item of the second run.
+	 * @param end Index after the last item of the second run.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void merge(int[] data, int start, int mid, int end, IntComparator comp) {
+		if (start >= mid || mid >= end || comp.compare(data[mid-1], data[mid]) <= 0) {
+			// a run is empty or they are already in order
+			return;
+		}
+		if (mid - start <= buffer.length) {
+			mergeLow(data, start, mid, end, comp);
+		}
+		else if (end - mid <= buffer.length) {
+			mergeHigh(data, start, mid, end, comp);
+		}
+		else if (mid - start == 1) {
+			// move the single item right, to just before the first item greater than it
+			int place = mid;
+			int last = end;
+			while (place < last) {
+				int middle = (place + last) >>> 1;
+				if (comp.compare(data[middle], data[start]) < 0) {
+					place = middle + 1;
+				}
+				else {
+					last = middle;
+				}
+			}
+			for (int i=start; i<place-1; i++) {
+				rig.swap(data, i, i+1);
+			}
+		}
+		else if (end - mid == 1) {
+			// move the single item left, to just after the last item not greater than it
+			int first = start;
+			int place = mid;
+			while (first < place) {
+				int middle = (first + place) >>> 1;
+				if (comp.compare(data[mid], data[middle]) >= 0) {
+					first = middle + 1;
+				}
+				else {
+					place = middle;
+				}
+			}
+			for (int i=mid; i>first; i--) {
+				rig.swap(data, i, i-1);
+			}
+		}
+		else {
+			symMerge(data, start, mid, end, comp);
+		}
+	}
+
+
+	/**
+	 * Merges two adjacent sorted runs in place by rotating the middle of them into place.
+	 * 
+	 * The centre of start..end-1 is found, then a binary search finds how far into each run the rotation should reach,
+	 * so that after the rotation every item left of the centre belongs before every item right of it.
+	 * The two sides are then merged separately.
+	 * 
+	 * @param data Array holding the runs.
+	 * @param start Index of the first item of the first run.
+	 * @param mid Index of the first item of the second run.
+	 * @param end Index after the last item of the second run.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void symMerge(int[] data, int start, int mid, int end, IntComparator comp) {
+		int centre = (start + end) >>> 1;
+		int sum = centre + mid;
+		int first;
+		int last;
+		if (mid > centre) {
+			first = sum - end;
+			last = centre;
+		}
+		else {
+			first = start;
+			last = mid;
+		}
+		// find the first item of the first run that belongs after the item it mirrors in the second run
+		int mirror = sum - 1;
+		while (first < last) {
+			int middle = (first + last) >>> 1;
+			if (comp.compare(data[mirror - middle], data[middle]) >= 0) {
+				first = middle + 1;
+			}
+			else {
+				last = middle;
+			}
+		}
+		int rotateEnd = sum - first;
+		if (first < mid && mid < rotateEnd) {
+			rotate(data, first, mid, rotateEnd);
+		}
+		merge(data, start, first, centre, comp);
+		merge(data, centre, rotateEnd, end, comp);
+	}
+
+
+	/**
+	 * Swaps the blocks data[start..mid-1] and data[mid..end-1], keeping the order within each.
+	 * 
+	 * @param data Array holding the blocks.
+	 * @param start Index of the first item of the first block.
+	 * @param mid Index of the first item of the second block.
+	 * @param end Index after the last item of the second block.
+	 */
+	private void rotate(int[] data, int start, int mid, int end) {
+		// reversing each block then the whole thing puts them the other way round
+		reverse(data, start, mid - 1);
+		reverse(data, mid, end - 1);
+		reverse(data, start, end - 1);
+	}
+
+
+	/**
+	 * @param data Array holding the items.
+	 * @param low Index of the first item to reverse.
+	 * @param high Index of the last item to reverse.
+	 */
+	private void reverse(int[] data, int low, int high) {
+		while (low < high) {
+			rig.swap(data, low, high);
+			low++;
+			high--;
+		}
+	}
+
+
+	/**
+	 * Merges two adjacent runs from the front, copying the first run out to the buffer.
+	 * 
+	 * @param data Array holding the runs.
+	 * @param start Index of the first item of the first run.
+	 * @param mid Index of the first item of the second run. The first run must fit in the buffer.
+	 * @param end Index after the last item of the second run.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void mergeLow(int[] data, int start, int mid, int end, IntComparator comp) {
+		int length = mid - start;
+		System.arraycopy(data, start, buffer, 0, length);
+		int i = 0;
+		int j = mid;
+		int dest = start;
+		while (i < length && j < end) {
+			// take from the second run only if it is strictly smaller, so equal items keep their order
+			if (comp.compare(data[j], buffer[i]) < 0) {
+				data[dest++] = data[j++];
+			}
+			else {
+				data[dest++] = buffer[i++];
+			}
+		}
+		// anything left in the second run is already in place
+		System.arraycopy(buffer, i, data, dest, length - i);
+	}
+
+
+	/**
+	 * Merges two adjacent runs from the back, copying the second run out to the buffer.
+	 * 
+	 * @param data Array holding the runs.
+	 * @param start Index of the first item of the first run.
+	 * @param mid Index of the first item of the second run.
+	 * @param end Index after the last item of the second run. The second run must fit in the buffer.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void mergeHigh(int[] data, int start, int mid, int end, IntComparator comp) {
+		int length = end - mid;
+		System.arraycopy(data, mid, buffer, 0, length);
+		int i = mid - 1;
+		int j = length - 1;
+		int dest = end - 1;
+		while (i >= start && j >= 0) {
+			// take from the first run only if it is strictly greater, so equal items keep their order
+			if (comp.compare(buffer[j], data[i]) < 0) {
+				data[dest--] = data[i--];
+			}
+			else {
+				data[dest--] = buffer[j--];
+			}
+		}
+		// anything left in the first run is already in place
+		System.arraycopy(buffer, 0, data, start, j + 1);
+	}
+}
@@ -0,0 +1,27 @@
+
+/**
+ * Sorts a subarray of integers with a stable merge sort that merges in place by rotations.
+ */
+public class InPlaceMergeSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "InPlaceMergeSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.inPlaceMergeSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return true;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Logarithmic;
+	}
+
+}
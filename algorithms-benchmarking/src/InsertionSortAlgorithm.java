@@ -0,0 +1,27 @@
+
+/**
+ * InsertionSorts a subarray of integers.
+ */
+public class InsertionSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "InsertionSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.insertionSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return true;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Constant;
+	}
+
+}
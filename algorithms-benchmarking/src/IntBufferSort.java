@@ -0,0 +1,334 @@
+import java.nio.IntBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorts IntBuffers in place, so data held off the heap does not have to be copied into an int[] first.
+ * 
+ * A direct IntBuffer (ByteBuffer.allocateDirect(...).asIntBuffer()) or a mapped file (FileChannel.map(...).asIntBuffer())
+ * can be sorted without a heap copy, so there is no multi-GB temporary array for the GC to deal with.
+ * Use ByteOrder.nativeOrder() for the ByteBuffer, otherwise every get and put has to swap the bytes.
+ * 
+ * These are the same algorithms as the int[] versions in TestingRig, and use the rig's pivot strategy, depth limit and insertion sort cutoff.
+ * Only the items between the position and the limit of the buffer are sorted.
+ */
+public class IntBufferSort {
+	// the rig that holds the settings of the sorting algorithms
+	private TestingRig rig;
+
+	/**
+	 * @param rig The rig that holds the settings of the sorting algorithms.
+	 */
+	public IntBufferSort(TestingRig rig) {
+		this.rig = rig;
+	}
+
+
+	/**
+	 * InsertionSorts a buffer of integers.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void insertionSort(IntBuffer data, IntComparator comp) {
+		insertionSort(data, data.position(), data.limit()-1, comp);
+	}
+
+
+	/**
+	 * InsertionSorts part of a buffer of integers.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param low The smallest index of the buffer in the partition.
+	 * @param high The largest index of the buffer in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void insertionSort(IntBuffer data, int low, int high, IntComparator comp) {
+		// for each item, from low, insert into place in the sorted region (low..i-1)
+		for (int i=low+1; i<=high; i++) {
+			int item = data.get(i);
+			int place = i;
+			while (place > low  &&  comp.compare(item, data.get(place-1)) < 0) {
+				data.put(place, data.get(place-1));
+				place--;
+			}
+			data.put(place, item);
+		}
+	}
+
+
+	/**
+	 * QuickSorts a buffer of integers.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void quickSort(IntBuffer data, IntComparator comp) {
+		quickSort(data, data.position(), data.limit()-1, comp);
+	}
+
+
+	/**
+	 * QuickSorts part of a buffer of integers.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param low The smallest index of the buffer you want to include in the partition.
+	 * @param high The largest index of the buffer you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void quickSort(IntBuffer data, int low, int high, IntComparator comp) {
+		quickSort(data, low, high, comp, rig.depthLimit(high - low + 1));
+	}
+
+
+	/**
+	 * QuickSorts part of a buffer of integers, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param low The smallest index of the buffer you want to include in the partition.
+	 * @param high The largest index of the buffer you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	private void quickSort(IntBuffer data, int low, int high, IntComparator comp, int depth) {
+		if (high - low < 1) {
+			// only one item to sort, so it is already sorted.
+			return;
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, low, high, comp);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = partition(data, low, high, comp);
+
+			// mid is already in the correct position, so do not try to sort it again
+			quickSort(data, low, mid-1, comp, depth-1);
+			quickSort(data, mid+1, high, comp, depth-1);
+		}
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts a buffer of integers.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void hybridQuickSort(IntBuffer data, IntComparator comp) {
+		hybridQuickSort(data, data.position(), data.limit()-1, comp);
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts part of a buffer of integers.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param low The smallest index of the buffer you want to include in the partition.
+	 * @param high The largest index of the buffer you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void hybridQuickSort(IntBuffer data, int low, int high, IntComparator comp) {
+		hybridQuickSort(data, low, high, comp, rig.depthLimit(high - low + 1));
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts part of a buffer of integers, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param low The smallest index of the buffer you want to include in the partition.
+	 * @param high The largest index of the buffer you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	private void hybridQuickSort(IntBuffer data, int low, int high, IntComparator comp, int depth) {
+		if (high - low < 1) {
+			// only one item to sort, so it is already sorted.
+			return;
+		}
+		else if (high - low < rig.insertionSortCutoff) {
+			// insertionSortCutoff or less items to sort, so use insertion sort.
+			insertionSort(data, low, high, comp);
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, low, high, comp);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = partition(data, low, high, comp);
+
+			// mid is already in the correct position, so do not try to sort it again
+			hybridQuickSort(data, low, mid-1, comp, depth-1);
+			hybridQuickSort(data, mid+1, high, comp, depth-1);
+		}
+	}
+
+
+	/**
+	 * HeapSorts part of a buffer of integers.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param low The smallest index of the buffer you want to include.
+	 * @param high The largest index of the buffer you want to include.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void heapSort(IntBuffer data, int low, int high, IntComparator comp) {
+		int size = high - low + 1;
+		// build the heap, starting from the last item that has children
+		for (int i=size/2 - 1; i>=0; i--) {
+			siftDown(data, low, i, size, comp);
+		}
+		// move the largest item to the end of the heap, then shrink the heap
+		for (int end=size-1; end>0; end--) {
+			swap(data, low, low+end);
+			siftDown(data, low, 0, end, comp);
+		}
+	}
+
+
+	/**
+	 * Moves an item down a max heap until it is larger than both of its children.
+	 * 
+	 * @param data Buffer holding the heap.
+	 * @param offset Index of the root of the heap in the buffer.
+	 * @param index Position in the heap of the item to be moved.
+	 * @param size Number of items in the heap.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void siftDown(IntBuffer data, int offset, int index, int size, IntComparator comp) {
+		int item = data.get(offset+index);
+		while (2*index + 1 < size) {
+			int child = 2*index + 1;
+			// use the larger of the two children
+			if (child+1 < size && comp.compare(data.get(offset+child+1), data.get(offset+child)) > 0) {
+				child++;
+			}
+			if (comp.compare(data.get(offset+child), item) <= 0) {
+				break;
+			}
+			data.put(offset+index, data.get(offset+child));
+			index = child;
+		}
+		data.put(offset+index, item);
+	}
+
+
+	/**
+	 * Partitions the data for quicksort, the same as TestingRig.partition.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param min The smallest index of the buffer you want to include in the partition.
+	 * @param max The largest index of the buffer you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The final index of the pivot.
+	 */
+	private int partition(IntBuffer data, int min, int max, IntComparator comp) {
+		swap(data, min, choosePivot(data, min, max, comp));
+		int pivot = data.get(min);
+		int scan = min+1;
+		int mark = scan;
+		while (scan <= max) {
+			if (comp.compare(data.get(scan), pivot) < 0) {
+				swap(data, scan, mark);
+				mark++;
+			}
+			scan++;
+		}
+		mark--;
+		swap(data, min, mark);
+		return mark;
+	}
+
+
+	/**
+	 * Chooses the index of the pivot for partition, using the rig's pivot strategy.
+	 * 
+	 * @param data The buffer you wish to sort.
+	 * @param min The smallest index of the buffer you want to include in the partition.
+	 * @param max The largest index of the buffer you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return Index of the pivot.
+	 */
+	private int choosePivot(IntBuffer data, int min, int max, IntComparator comp) {
+		switch (rig.pivotStrategy) {
+		case MedianOfThree:
+			return medianOfThree(data, min, min + (max-min)/2, max, comp);
+		case Ninther:
+			if (max - min < 40) {
+				// too few items for the ninther to be worth the extra comparisons
+				return medianOfThree(data, min, min + (max-min)/2, max, comp);
+			}
+			// median of the medians of three evenly spaced groups of three
+			int step = (max - min)/8;
+			int mid = min + (max-min)/2;
+			int first = medianOfThree(data, min, min + step, min + 2*step, comp);
+			int second = medianOfThree(data, mid - step, mid, mid + step, comp);
+			int third = medianOfThree(data, max - 2*step, max - step, max, comp);
+			return medianOfThree(data, first, second, third, comp);
+		case Random:
+			return min + ThreadLocalRandom.current().nextInt(max - min + 1);
+		default:
+			return min;
+		}
+	}
+
+
+	/**
+	 * Finds which of three indexes holds the median of their values.
+	 * 
+	 * @param data Buffer of integers.
+	 * @param a The first index.
+	 * @param b The second index.
+	 * @param c The third index.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The index holding the median value.
+	 */
+	private int medianOfThree(IntBuffer data, int a, int b, int c, IntComparator comp) {
+		int valueA = data.get(a);
+		int valueB = data.get(b);
+		int valueC = data.get(c);
+		if (comp.compare(valueA, valueB) < 0) {
+			if (comp.compare(valueB, valueC) < 0) {
+				return b;
+			}
+			return comp.compare(valueA, valueC) < 0 ? c : a;
+		}
+		if (comp.compare(valueA, valueC) < 0) {
+			return a;
+		}
+		return comp.compare(valueB, valueC) < 0 ? c : b;
+	}
+
+
+	/**
+	 * Checks if the items between the position and the limit of the buffer are sorted.
+	 * 
+	 * @param data The buffer you wish to check.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return True if the buffer is sorted, False if it is not.
+	 */
+	public boolean isSorted(IntBuffer data, IntComparator comp) {
+		for (int i=data.position()+1; i<data.limit(); i++) {
+			if (comp.compare(data.get(i), data.get(i-1)) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Swap the location of two values in a buffer.
+	 * 
+	 * @param data Buffer of integers.
+	 * @param index1 One of the indexes you wish to swap.
+	 * @param index2 The other index you wish to swap.
+	 */
+	public void swap(IntBuffer data, int index1, int index2) {
+		int temp = data.get(index1);
+		data.put(index1, data.get(index2));
+		data.put(index2, temp);
+	}
+}
@@ -0,0 +1,40 @@
+import java.util.Comparator;
+
+/**
+ * Compares two primitive integers.
+ * 
+ * This works the same way as Comparator<Integer>, but the integers are never boxed.
+ * The sorting algorithms call compare on every comparison, so boxing there dominates the time taken.
+ */
+@FunctionalInterface
+public interface IntComparator {
+	
+	/**
+	 * Compares two integers.
+	 * 
+	 * @param int1 The first integer to be compared.
+	 * @param int2 The second integer to be compared.
+	 * @return A negative number if int1 comes before int2, zero if they are equal, and a positive number if int1 comes after int2.
+	 */
+	int compare(int int1, int int2);
+	
+	
+	/**
+	 * Converts a Comparator<Integer> into an IntComparator.
+	 * 
+	 * The sorts only take an IntComparator, so a lambda always means an IntComparator.
+	 * Callers with a Comparator<Integer> pass it through here, e.g. rig.quickSort(data, IntComparator.of(comp)).
+	 * 
+	 * A LessThanComparator is replaced by a LessThanIntComparator so it does not box at all.
+	 * Any other comparator is wrapped, and will still box on every comparison.
+	 * 
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return An IntComparator with the same ordering.
+	 */
+	static IntComparator of(Comparator<Integer> comp) {
+		if (comp instanceof LessThanComparator) {
+			return new LessThanIntComparator();
+		}
+		return (int1, int2) -> comp.compare(int1, int2);
+	}
+}
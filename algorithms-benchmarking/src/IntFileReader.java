@@ -0,0 +1,160 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a binary file of integers one at a time, with double buffering.
+ * 
+ * The integers are 4 bytes each, big endian (the same as DataOutputStream.writeInt).
+ * While the integers in one buffer are being read, the next part of the file is read into the other buffer in the background.
+ */
+public class IntFileReader implements Closeable {
+	private AsynchronousFileChannel channel;
+	// size of the file in bytes
+	private long fileSize;
+	// position in the file of the next read
+	private long position;
+	// the buffer the integers are currently read from
+	private ByteBuffer current;
+	// the buffer being filled in the background
+	private ByteBuffer next;
+	// the background read into next, or null if the end of the file has been reached
+	private Future<Integer> pending;
+
+	/**
+	 * @param file The file to read.
+	 * @param bufferSize Size of each of the two buffers in bytes. Rounded down to a multiple of 4.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public IntFileReader(File file, int bufferSize) throws IOException {
+		channel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ);
+		fileSize = channel.size();
+		bufferSize = Math.max(4, bufferSize - bufferSize % 4);
+		current = ByteBuffer.allocateDirect(bufferSize);
+		next = ByteBuffer.allocateDirect(bufferSize);
+		// nothing to read from yet
+		current.flip();
+		startRead();
+	}
+
+
+	/**
+	 * @return True if there is another integer to read.
+	 * @throws IOException If the file cannot be read, or it ends with 1 to 3 bytes that are not a whole integer.
+	 */
+	public boolean hasNext() throws IOException {
+		if (current.remaining() < 4) {
+			swapBuffers();
+		}
+		if (current.remaining() >= 4) {
+			return true;
+		}
+		if (position < fileSize) {
+			// startRead never reads the bytes after the last whole integer
+			throw new IOException("the file ends with " + (fileSize - position) + " bytes that are not a whole integer");
+		}
+		return false;
+	}
+
+
+	/**
+	 * Reads the next integer. hasNext must be checked first.
+	 * 
+	 * @return The next integer in the file.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public int next() throws IOException {
+		if (current.remaining() < 4) {
+			swapBuffers();
+		}
+		return current.getInt();
+	}
+
+
+	/**
+	 * Reads up to length integers into an array.
+	 * 
+	 * @param data The array to read into.
+	 * @param offset The index of the first integer to read into.
+	 * @param length The largest number of integers to read.
+	 * @return The number of integers read. Less than length only at the end of the file.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public int read(int[] data, int offset, int length) throws IOException {
+		int count = 0;
+		while (count < length && hasNext()) {
+			// copy as many as possible from the current buffer in one go
+			int available = Math.min(length - count, current.remaining() / 4);
+			current.asIntBuffer().get(data, offset + count, available);
+			current.position(current.position() + available * 4);
+			count += available;
+		}
+		return count;
+	}
+
+
+	/**
+	 * Starts reading the next part of the file into the next buffer in the background.
+	 */
+	private void startRead() {
+		next.clear();
+		// stop at the last whole integer in the file, so the buffer only ever holds whole integers
+		long wholeBytes = (fileSize - position) - (fileSize - position) % 4;
+		if (wholeBytes <= 0) {
+			pending = null;
+			return;
+		}
+		next.limit((int)Math.min(next.capacity(), wholeBytes));
+		pending = channel.read(next, position);
+	}
+
+
+	/**
+	 * Waits for the background read, makes it the current buffer, and starts reading into the other buffer.
+	 * 
+	 * @throws IOException If the file cannot be read.
+	 */
+	private void swapBuffers() throws IOException {
+		if (pending == null) {
+			return;
+		}
+		try {
+			int bytesRead = pending.get();
+			position += Math.max(0, bytesRead);
+			// the read can stop early, so finish filling the buffer before using it
+			while (next.hasRemaining() && bytesRead >= 0) {
+				bytesRead = channel.read(next, position).get();
+				position += Math.max(0, bytesRead);
+			}
+		}
+		catch (InterruptedException | ExecutionException error) {
+			throw new IOException(error);
+		}
+
+		next.flip();
+		ByteBuffer temp = current;
+		current = next;
+		next = temp;
+		startRead();
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		if (pending != null) {
+			// the channel cannot be closed safely while a read is still writing into a buffer
+			try {
+				pending.get();
+			}
+			catch (InterruptedException | ExecutionException error) {
+				// the file is being closed anyway
+			}
+		}
+		channel.close();
+	}
+}
@@ -0,0 +1,125 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a binary file of integers one at a time, with double buffering.
+ * 
+ * The integers are 4 bytes each, big endian (the same as DataOutputStream.writeInt).
+ * While one buffer is being written to the file in the background, the integers are put into the other buffer.
+ */
+public class IntFileWriter implements Closeable {
+	private AsynchronousFileChannel channel;
+	// position in the file of the next write
+	private long position;
+	// the buffer the integers are currently put into
+	private ByteBuffer current;
+	// the buffer being written in the background
+	private ByteBuffer writing;
+	// the background write of the writing buffer, or null if nothing is being written
+	private Future<Integer> pending;
+
+	/**
+	 * @param file The file to write. It is replaced if it already exists.
+	 * @param bufferSize Size of each of the two buffers in bytes. Rounded down to a multiple of 4.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public IntFileWriter(File file, int bufferSize) throws IOException {
+		channel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		bufferSize = Math.max(4, bufferSize - bufferSize % 4);
+		current = ByteBuffer.allocateDirect(bufferSize);
+		writing = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+
+	/**
+	 * Writes one integer.
+	 * 
+	 * @param item The integer to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void write(int item) throws IOException {
+		if (!current.hasRemaining()) {
+			swapBuffers();
+		}
+		current.putInt(item);
+	}
+
+
+	/**
+	 * Writes a subarray of integers.
+	 * 
+	 * @param data The array to write from.
+	 * @param offset The index of the first integer to write.
+	 * @param length The number of integers to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void write(int[] data, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (!current.hasRemaining()) {
+				swapBuffers();
+			}
+			// copy as many as possible into the current buffer in one go
+			int space = Math.min(length, current.remaining() / 4);
+			current.asIntBuffer().put(data, offset, space);
+			current.position(current.position() + space * 4);
+			offset += space;
+			length -= space;
+		}
+	}
+
+
+	/**
+	 * Waits for the background write to finish.
+	 * 
+	 * @throws IOException If the file cannot be written.
+	 */
+	private void finishWrite() throws IOException {
+		if (pending == null) {
+			return;
+		}
+		try {
+			position += pending.get();
+			// the write can stop early, so write the rest of the buffer
+			while (writing.hasRemaining()) {
+				position += channel.write(writing, position).get();
+			}
+		}
+		catch (InterruptedException | ExecutionException error) {
+			throw new IOException(error);
+		}
+		pending = null;
+	}
+
+
+	/**
+	 * Starts writing the current buffer in the background, and switches to the other buffer.
+	 * 
+	 * @throws IOException If the file cannot be written.
+	 */
+	private void swapBuffers() throws IOException {
+		finishWrite();
+		ByteBuffer temp = writing;
+		writing = current;
+		current = temp;
+		current.clear();
+		writing.flip();
+		pending = channel.write(writing, position);
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		// write out whatever is left in the current buffer
+		if (current.position() > 0) {
+			swapBuffers();
+		}
+		finishWrite();
+		channel.close();
+	}
+}
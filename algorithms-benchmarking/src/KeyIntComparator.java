@@ -0,0 +1,24 @@
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Orders integers from smallest to largest by a key calculated from each integer.
+ * 
+ * e.g. a key of Math::abs orders the integers by their distance from zero.
+ */
+public class KeyIntComparator implements IntComparator {
+	// the function used to calculate the key of each integer
+	private IntUnaryOperator key;
+	
+	/**
+	 * @param key Function that calculates the key to order each integer by.
+	 */
+	public KeyIntComparator(IntUnaryOperator key) {
+		this.key = key;
+	}
+
+	@Override
+	public int compare(int int1, int int2) {
+		return Integer.compare(key.applyAsInt(int1), key.applyAsInt(int2));
+	}
+
+}
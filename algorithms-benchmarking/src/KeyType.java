@@ -0,0 +1,14 @@
+
+/**
+ * The type of key sorted in a test.
+ * 
+ * Int is the original behaviour, an int[].
+ * Long sorts a long[] and Double sorts a double[], both with the primitive-specialised sorts.
+ * Record sorts TimestampedValue records by their timestamp with RecordSort.
+ */
+public enum KeyType {
+	Int,
+	Long,
+	Double,
+	Record
+}
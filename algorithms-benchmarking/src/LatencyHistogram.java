@@ -0,0 +1,213 @@
+/**
+ * Records times in a fixed number of logarithmic buckets, so any number of trials fits in constant memory.
+ * 
+ * Values below 64 get a bucket each. Above that, every power of two is split into 64 buckets,
+ * so a percentile is reported to within 1/64 (about 1.6%) of the true value.
+ * The count, minimum, maximum, mean and standard deviation are exact.
+ */
+public class LatencyHistogram {
+	// number of bits of each value kept by its bucket
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// counts[i] is the number of values recorded in bucket i
+	private long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+	private long count;
+	private long min = Long.MAX_VALUE;
+	private long max;
+	// used for the exact mean and standard deviation
+	private double sum;
+	private double sumOfSquares;
+
+
+	/**
+	 * Records one value.
+	 * 
+	 * @param value The value, e.g. a time in nanoseconds. Negative values are recorded as 0.
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts[bucket(value)]++;
+		count++;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+		sum += value;
+		sumOfSquares += (double)value * value;
+	}
+
+
+	/**
+	 * Adds every value recorded by another histogram to this one.
+	 * 
+	 * @param other The other histogram.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i=0; i<counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		sum += other.sum;
+		sumOfSquares += other.sumOfSquares;
+	}
+
+
+	/**
+	 * Forgets every value recorded so far.
+	 */
+	public void reset() {
+		counts = new long[counts.length];
+		count = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+		sum = 0;
+		sumOfSquares = 0;
+	}
+
+
+	/**
+	 * @return The number of values recorded.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The smallest value recorded, or 0 if none have been.
+	 */
+	public long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	/**
+	 * @return The largest value recorded, or 0 if none have been.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return The mean of the values recorded, or 0 if none have been.
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : sum/count;
+	}
+
+	/**
+	 * @return The population standard deviation of the values recorded, the same as testSort has always reported.
+	 */
+	public double getStandardDeviation() {
+		if (count == 0) {
+			return 0;
+		}
+		double mean = getMean();
+		// rounding can make this very slightly negative when every value is the same
+		return Math.sqrt(Math.max(0, sumOfSquares/count - mean*mean));
+	}
+
+
+	/**
+	 * Finds the value at a percentile.
+	 * 
+	 * @param percentile The percentile, e.g. 99.9.
+	 * @return The middle of the bucket holding that percentile, kept between the minimum and maximum. 0 if nothing has been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		// the rank of the value at that percentile, counting from 1
+		long rank = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i=0; i<counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				long middle = lowestValue(i) + (bucketWidth(i) - 1) / 2;
+				return Math.max(getMin(), Math.min(max, middle));
+			}
+		}
+		return max;
+	}
+
+
+	/**
+	 * Writes the histogram as one line of text, so a forked JVM can send it to its parent.
+	 * 
+	 * @return The count, min, max, sum and sum of squares, then index:count for every bucket that is not empty.
+	 */
+	public String encode() {
+		StringBuilder line = new StringBuilder();
+		line.append(count).append(' ').append(min).append(' ').append(max).append(' ').append(sum).append(' ').append(sumOfSquares);
+		for (int i=0; i<counts.length; i++) {
+			if (counts[i] != 0) {
+				line.append(' ').append(i).append(':').append(counts[i]);
+			}
+		}
+		return line.toString();
+	}
+
+
+	/**
+	 * Reads a histogram written by encode.
+	 * 
+	 * @param line The line written by encode.
+	 * @return The histogram.
+	 */
+	public static LatencyHistogram decode(String line) {
+		String[] parts = line.trim().split(" ");
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.count = Long.parseLong(parts[0]);
+		histogram.min = Long.parseLong(parts[1]);
+		histogram.max = Long.parseLong(parts[2]);
+		histogram.sum = Double.parseDouble(parts[3]);
+		histogram.sumOfSquares = Double.parseDouble(parts[4]);
+		for (int i=5; i<parts.length; i++) {
+			int colon = parts[i].indexOf(':');
+			histogram.counts[Integer.parseInt(parts[i].substring(0, colon))] = Long.parseLong(parts[i].substring(colon+1));
+		}
+		return histogram;
+	}
+
+
+	/**
+	 * Finds the bucket a value is recorded in.
+	 * 
+	 * @param value A value that is not negative.
+	 * @return The index of its bucket.
+	 */
+	private int bucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int)value;
+		}
+		// the position of the highest set bit picks the power of two, the next SUB_BUCKET_BITS bits pick the bucket within it
+		int highestBit = 63 - Long.numberOfLeadingZeros(value);
+		int shift = highestBit - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int)((value >>> shift) - SUB_BUCKETS);
+	}
+
+
+	/**
+	 * @param bucket The index of a bucket.
+	 * @return The smallest value recorded in that bucket.
+	 */
+	private long lowestValue(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		return ((long)(SUB_BUCKETS + bucket % SUB_BUCKETS)) << shift;
+	}
+
+
+	/**
+	 * @param bucket The index of a bucket.
+	 * @return The number of different values recorded in that bucket.
+	 */
+	private long bucketWidth(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return 1;
+		}
+		return 1L << (bucket / SUB_BUCKETS - 1);
+	}
+}
@@ -0,0 +1,13 @@
+
+/**
+ * How hybridQuickSort sorts the subarrays of insertionSortCutoff items or fewer.
+ * 
+ * InsertionSort is the original behaviour. Its inner loop branches on every comparison, and on random data that branch is unpredictable.
+ * SortingNetwork uses a fixed sequence of compare-exchanges that does not depend on the data, each done without a branch.
+ * It is fastest with LessThanIntComparator or GreaterThanIntComparator, where each compare-exchange is a min and a max.
+ * Other comparators are called for every compare-exchange, and the network makes more comparisons than insertion sort.
+ */
+public enum LeafSort {
+	InsertionSort,
+	SortingNetwork
+}
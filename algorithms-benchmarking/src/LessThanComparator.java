@@ -4,7 +4,8 @@ public class LessThanComparator implements Comparator<Integer> {
 
 	@Override
 	public int compare(Integer int1, Integer int2) {
-		return int1 - int2;
+		// Integer.compare is used instead of int1 - int2, as the subtraction overflows for values far apart.
+		return Integer.compare(int1, int2);
 	}
 
 }
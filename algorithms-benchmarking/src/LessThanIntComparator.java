@@ -0,0 +1,12 @@
+
+/**
+ * Orders integers from smallest to largest, without boxing them.
+ */
+public class LessThanIntComparator implements IntComparator {
+
+	@Override
+	public int compare(int int1, int int2) {
+		return Integer.compare(int1, int2);
+	}
+
+}
@@ -0,0 +1,363 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorts arrays of longs (e.g. timestamps) from smallest to largest without boxing.
+ * 
+ * These are the same algorithms as the int[] versions in TestingRig, and use the rig's pivot strategy, depth limit and insertion sort cutoff.
+ * The items are compared with < directly, as a comparator call per comparison is what these are meant to avoid.
+ * 
+ * hybridQuickSort can also carry an int[] of values along with the keys, e.g. the permutation RecordSort uses to reorder records.
+ */
+public class LongSort {
+	// the rig that holds the settings of the sorting algorithms
+	private TestingRig rig;
+
+	/**
+	 * @param rig The rig that holds the settings of the sorting algorithms.
+	 */
+	public LongSort(TestingRig rig) {
+		this.rig = rig;
+	}
+
+
+	/**
+	 * InsertionSorts an array of longs.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void insertionSort(long[] data) {
+		insertionSort(data, 0, data.length-1);
+	}
+
+
+	/**
+	 * InsertionSorts a subarray of longs.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array in the partition.
+	 * @param high The largest index of the array in the partition.
+	 */
+	public void insertionSort(long[] data, int low, int high) {
+		// for each item, from low, insert into place in the sorted region (low..i-1)
+		for (int i=low+1; i<=high; i++) {
+			long item = data[i];
+			int place = i;
+			while (place > low  &&  item < data[place-1]) {
+				data[place] = data[place-1];
+				place--;
+			}
+			data[place] = item;
+		}
+	}
+
+
+	/**
+	 * QuickSorts an array of longs.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void quickSort(long[] data) {
+		quickSort(data, 0, data.length-1);
+	}
+
+
+	/**
+	 * QuickSorts a subarray of longs.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 */
+	public void quickSort(long[] data, int low, int high) {
+		quickSort(data, low, high, rig.depthLimit(high - low + 1));
+	}
+
+
+	/**
+	 * QuickSorts a subarray of longs, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	private void quickSort(long[] data, int low, int high, int depth) {
+		if (high - low < 1) {
+			// only one item to sort, so it is already sorted.
+			return;
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, null, low, high);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = partition(data, null, low, high);
+
+			// mid is already in the correct position, so do not try to sort it again
+			quickSort(data, low, mid-1, depth-1);
+			quickSort(data, mid+1, high, depth-1);
+		}
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts an array of longs.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void hybridQuickSort(long[] data) {
+		hybridQuickSort(data, null, 0, data.length-1);
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts an array of longs, moving the values to the same place as their keys.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i]. Must be at least as long as keys.
+	 */
+	public void hybridQuickSort(long[] keys, int[] values) {
+		hybridQuickSort(keys, values, 0, keys.length-1);
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts a subarray of longs, moving the values to the same place as their keys.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i], or null if there are no values.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 */
+	public void hybridQuickSort(long[] keys, int[] values, int low, int high) {
+		hybridQuickSort(keys, values, low, high, rig.depthLimit(high - low + 1));
+	}
+
+
+	/**
+	 * Hybrid-QuickSorts a subarray of longs, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i], or null if there are no values.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	private void hybridQuickSort(long[] keys, int[] values, int low, int high, int depth) {
+		if (high - low < 1) {
+			// only one item to sort, so it is already sorted.
+			return;
+		}
+		else if (high - low < rig.insertionSortCutoff) {
+			// insertionSortCutoff or less items to sort, so use insertion sort.
+			if (values == null) {
+				insertionSort(keys, low, high);
+			}
+			else {
+				insertionSort(keys, values, low, high);
+			}
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(keys, values, low, high);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = partition(keys, values, low, high);
+
+			// mid is already in the correct position, so do not try to sort it again
+			hybridQuickSort(keys, values, low, mid-1, depth-1);
+			hybridQuickSort(keys, values, mid+1, high, depth-1);
+		}
+	}
+
+
+	/**
+	 * InsertionSorts a subarray of longs, moving the values to the same place as their keys.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i].
+	 * @param low The smallest index of the array in the partition.
+	 * @param high The largest index of the array in the partition.
+	 */
+	private void insertionSort(long[] keys, int[] values, int low, int high) {
+		for (int i=low+1; i<=high; i++) {
+			long key = keys[i];
+			int value = values[i];
+			int place = i;
+			while (place > low  &&  key < keys[place-1]) {
+				keys[place] = keys[place-1];
+				values[place] = values[place-1];
+				place--;
+			}
+			keys[place] = key;
+			values[place] = value;
+		}
+	}
+
+
+	/**
+	 * HeapSorts a subarray of longs, moving the values to the same place as their keys.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i], or null if there are no values.
+	 * @param low The smallest index of the array you want to include.
+	 * @param high The largest index of the array you want to include.
+	 */
+	private void heapSort(long[] keys, int[] values, int low, int high) {
+		int size = high - low + 1;
+		// build the heap, starting from the last item that has children
+		for (int i=size/2 - 1; i>=0; i--) {
+			siftDown(keys, values, low, i, size);
+		}
+		// move the largest item to the end of the heap, then shrink the heap
+		for (int end=size-1; end>0; end--) {
+			swap(keys, values, low, low+end);
+			siftDown(keys, values, low, 0, end);
+		}
+	}
+
+
+	/**
+	 * Moves an item down a max heap until it is larger than both of its children.
+	 * 
+	 * @param keys Array holding the heap.
+	 * @param values values[i] belongs to keys[i], or null if there are no values.
+	 * @param offset Index of the root of the heap in the array.
+	 * @param index Position in the heap of the item to be moved.
+	 * @param size Number of items in the heap.
+	 */
+	private void siftDown(long[] keys, int[] values, int offset, int index, int size) {
+		while (2*index + 1 < size) {
+			int child = 2*index + 1;
+			// use the larger of the two children
+			if (child+1 < size && keys[offset+child+1] > keys[offset+child]) {
+				child++;
+			}
+			if (keys[offset+child] <= keys[offset+index]) {
+				break;
+			}
+			swap(keys, values, offset+index, offset+child);
+			index = child;
+		}
+	}
+
+
+	/**
+	 * Partitions the data for quicksort, the same as TestingRig.partition.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i], or null if there are no values.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @return The final index of the pivot.
+	 */
+	private int partition(long[] keys, int[] values, int min, int max) {
+		swap(keys, values, min, choosePivot(keys, min, max));
+		long pivot = keys[min];
+		int scan = min+1;
+		int mark = scan;
+		while (scan <= max) {
+			if (keys[scan] < pivot) {
+				swap(keys, values, scan, mark);
+				mark++;
+			}
+			scan++;
+		}
+		mark--;
+		swap(keys, values, min, mark);
+		return mark;
+	}
+
+
+	/**
+	 * Chooses the index of the pivot for partition, using the rig's pivot strategy.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @return Index of the pivot.
+	 */
+	private int choosePivot(long[] data, int min, int max) {
+		switch (rig.pivotStrategy) {
+		case MedianOfThree:
+			return medianOfThree(data, min, min + (max-min)/2, max);
+		case Ninther:
+			if (max - min < 40) {
+				// too few items for the ninther to be worth the extra comparisons
+				return medianOfThree(data, min, min + (max-min)/2, max);
+			}
+			// median of the medians of three evenly spaced groups of three
+			int step = (max - min)/8;
+			int mid = min + (max-min)/2;
+			int first = medianOfThree(data, min, min + step, min + 2*step);
+			int second = medianOfThree(data, mid - step, mid, mid + step);
+			int third = medianOfThree(data, max - 2*step, max - step, max);
+			return medianOfThree(data, first, second, third);
+		case Random:
+			return min + ThreadLocalRandom.current().nextInt(max - min + 1);
+		default:
+			return min;
+		}
+	}
+
+
+	/**
+	 * Finds which of three indexes holds the median of their values.
+	 * 
+	 * @param data Array of longs.
+	 * @param a The first index.
+	 * @param b The second index.
+	 * @param c The third index.
+	 * @return The index holding the median value.
+	 */
+	private int medianOfThree(long[] data, int a, int b, int c) {
+		if (data[a] < data[b]) {
+			if (data[b] < data[c]) {
+				return b;
+			}
+			return data[a] < data[c] ? c : a;
+		}
+		if (data[a] < data[c]) {
+			return a;
+		}
+		return data[b] < data[c] ? c : b;
+	}
+
+
+	/**
+	 * Checks if an array of longs is sorted from smallest to largest.
+	 * 
+	 * @param data The array you wish to check.
+	 * @return True if the array is sorted, False if it is not.
+	 */
+	public boolean isSorted(long[] data) {
+		for (int i=1; i<data.length; i++) {
+			if (data[i] < data[i-1]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Swap the location of two keys, and of their values.
+	 * 
+	 * @param keys Array of longs.
+	 * @param values values[i] belongs to keys[i], or null if there are no values.
+	 * @param index1 One of the indexes you wish to swap.
+	 * @param index2 The other index you wish to swap.
+	 */
+	private void swap(long[] keys, int[] values, int index1, int index2) {
+		long temp = keys[index1];
+		keys[index1] = keys[index2];
+		keys[index2] = temp;
+		if (values != null) {
+			int tempValue = values[index1];
+			values[index1] = values[index2];
+			values[index2] = tempValue;
+		}
+	}
+}
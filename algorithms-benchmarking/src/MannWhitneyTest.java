@@ -0,0 +1,126 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The Mann-Whitney U test, which checks whether one set of times tends to be larger than another.
+ * 
+ * It compares the ranks of the times instead of their means, so a few trials slowed down by a GC pause or an interrupt
+ * cannot make a difference look significant on their own. The p-value uses the normal approximation with a correction for ties,
+ * which is accurate once each set has about 8 or more times.
+ */
+public class MannWhitneyTest {
+
+	/**
+	 * Tests whether the current times tend to be larger (slower) than the baseline times.
+	 * 
+	 * @param baseline Times from the baseline run.
+	 * @param current Times from the current run.
+	 * @return The one-sided p-value, the probability of the current times ranking this high if neither run is slower.
+	 *         1 if either set is empty.
+	 */
+	public static double pSlower(long[] baseline, long[] current) {
+		int n1 = current.length;
+		int n2 = baseline.length;
+		if (n1 == 0 || n2 == 0) {
+			return 1;
+		}
+		int n = n1 + n2;
+		// sort both sets together, remembering which set each time came from in the lowest bit
+		long[] combined = new long[n];
+		for (int i=0; i<n1; i++) {
+			combined[i] = (current[i] << 1) | 1;
+		}
+		for (int i=0; i<n2; i++) {
+			combined[n1+i] = baseline[i] << 1;
+		}
+		Arrays.sort(combined);
+
+		// equal times share the mean of the ranks they cover
+		double currentRankSum = 0;
+		double tieCorrection = 0;
+		int start = 0;
+		while (start < n) {
+			int end = start;
+			while (end+1 < n && (combined[end+1] >> 1) == (combined[start] >> 1)) {
+				end++;
+			}
+			double rank = (start + end) / 2.0 + 1;
+			for (int i=start; i<=end; i++) {
+				if ((combined[i] & 1) == 1) {
+					currentRankSum += rank;
+				}
+			}
+			long ties = end - start + 1;
+			tieCorrection += ties*ties*ties - ties;
+			start = end + 1;
+		}
+
+		// in floating point, as n1*(n1 + 1) overflows an int once n1 reaches 46341
+		double u = currentRankSum - n1*(n1 + 1.0) / 2;
+		double mean = n1*(double)n2 / 2;
+		double variance = n1*(double)n2 / 12 * ((n + 1) - tieCorrection / ((double)n*(n - 1)));
+		if (variance <= 0) {
+			// every time is the same
+			return 1;
+		}
+		// the 0.5 corrects for approximating a discrete distribution with a continuous one
+		double z = (u - mean - 0.5) / Math.sqrt(variance);
+		return upperTail(z);
+	}
+
+
+	/**
+	 * Finds the probability of a standard normal variable being greater than z.
+	 * 
+	 * @param z The value.
+	 * @return The probability, accurate to about 1e-7.
+	 */
+	private static double upperTail(double z) {
+		return 0.5 * erfc(z / Math.sqrt(2));
+	}
+
+
+	/**
+	 * The complementary error function, from the Chebyshev approximation in Numerical Recipes.
+	 * 
+	 * @param x The value.
+	 * @return erfc(x), accurate to about 1.2e-7.
+	 */
+	private static double erfc(double x) {
+		double t = 1 / (1 + 0.5*Math.abs(x));
+		double y = t * Math.exp(-x*x - 1.26551223 + t*(1.00002368 + t*(0.37409196 + t*(0.09678418 + t*(-0.18628806
+				+ t*(0.27886807 + t*(-1.13520398 + t*(1.48851587 + t*(-0.82215223 + t*0.17087277)))))))));
+		return x >= 0 ? y : 2 - y;
+	}
+
+
+
+	/**
+	 * Checks the test on large samples, such as those from a 100000 trial campaign.
+	 * 
+	 * Two samples from the same distribution must not be flagged as slower, and a sample 5% slower must be.
+	 * Exits with 1 if either check fails.
+	 * 
+	 * @param args The sample size, default 100000.
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		Random random = new Random(1);
+		long[] baseline = new long[size];
+		long[] same = new long[size];
+		long[] slower = new long[size];
+		for (int i=0; i<size; i++) {
+			baseline[i] = 1000000 + (long)(random.nextGaussian() * 50000);
+			same[i] = 1000000 + (long)(random.nextGaussian() * 50000);
+			slower[i] = 1050000 + (long)(random.nextGaussian() * 50000);
+		}
+		double pSame = pSlower(baseline, same);
+		double pShifted = pSlower(baseline, slower);
+		System.out.println("same distribution: p = " + pSame);
+		System.out.println("5% slower: p = " + pShifted);
+		if (pSame < 0.01 || pShifted >= 0.01) {
+			System.out.println("error: the test flagged the wrong sample");
+			System.exit(1);
+		}
+	}
+}
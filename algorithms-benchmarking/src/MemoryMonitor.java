@@ -0,0 +1,99 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures the memory a trial allocates, and the garbage collections that run during it.
+ * 
+ * Only the bytes allocated by the thread that runs the trial are counted, not those allocated by the threads of the parallel sorts.
+ * If the JVM cannot measure allocation they are reported as -1.
+ * Collections are counted over the whole JVM, as a collection can pause every thread.
+ */
+public class MemoryMonitor {
+	// null if the JVM cannot measure how much a thread allocates
+	private ThreadMXBean threads;
+	private List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+	// the totals when the trial started
+	private long startBytes;
+	private long startCollections;
+	private long startCollectionMs;
+	// the memory of the last trial, so a caller that did not time the trial itself can still record it
+	private TrialMemory last = new TrialMemory(-1, 0, 0);
+	
+	public MemoryMonitor() {
+		if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean) {
+			ThreadMXBean bean = (ThreadMXBean)ManagementFactory.getThreadMXBean();
+			if (bean.isThreadAllocatedMemorySupported()) {
+				bean.setThreadAllocatedMemoryEnabled(true);
+				threads = bean;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Starts measuring a trial. Call it just before the timed region starts.
+	 */
+	public void start() {
+		startCollections = collections();
+		startCollectionMs = collectionMs();
+		// read last, so reading the collectors is not counted as allocated by the trial
+		startBytes = allocatedBytes();
+	}
+	
+	
+	/**
+	 * Stops measuring a trial. Call it just after the timed region ends.
+	 * 
+	 * @return The memory the trial allocated and the collections that ran during it.
+	 */
+	public TrialMemory stop() {
+		// read first, for the same reason
+		long bytes = allocatedBytes();
+		last = new TrialMemory(threads == null ? -1 : bytes - startBytes, collections() - startCollections, collectionMs() - startCollectionMs);
+		return last;
+	}
+	
+	
+	/**
+	 * @return The memory of the last trial that was stopped.
+	 */
+	public TrialMemory getLast() {
+		return last;
+	}
+	
+	
+	/**
+	 * @return The total number of bytes the current thread has allocated, or 0 if the JVM cannot measure it.
+	 */
+	private long allocatedBytes() {
+		return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+	}
+	
+	
+	/**
+	 * @return The total number of collections run by every collector.
+	 */
+	private long collections() {
+		long total = 0;
+		for (GarbageCollectorMXBean collector : collectors) {
+			// -1 if the collector does not count its collections
+			total += Math.max(0, collector.getCollectionCount());
+		}
+		return total;
+	}
+	
+	
+	/**
+	 * @return The total time every collector has spent collecting, in milliseconds.
+	 */
+	private long collectionMs() {
+		long total = 0;
+		for (GarbageCollectorMXBean collector : collectors) {
+			total += Math.max(0, collector.getCollectionTime());
+		}
+		return total;
+	}
+}
@@ -0,0 +1,27 @@
+
+/**
+ * Sorts a subarray of integers with a top-down MergeSort, using a buffer as long as the subarray.
+ */
+public class MergeSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "MergeSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.mergeSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return true;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Linear;
+	}
+
+}
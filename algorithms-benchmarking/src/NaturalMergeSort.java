@@ -0,0 +1,552 @@
+
+/**
+ * Adaptive merge sort for arrays of integers that takes advantage of order already in the array (TimSort).
+ * 
+ * The array is split into natural runs, the longest stretches that are already ascending, or strictly descending and reversed.
+ * Runs shorter than minRun are extended with the rig's insertionSort. The runs are kept on a stack and merged
+ * so their lengths stay balanced, which keeps the sort O(n log n), and an already sorted array is a single run found in linear time.
+ * When one run keeps winning a merge, the merge gallops: it searches for how far that run wins instead of comparing one item at a time.
+ * It is stable.
+ */
+public class NaturalMergeSort {
+	// subarrays shorter than this are a single insertion sorted run
+	private static final int MIN_MERGE = 32;
+	// how many times in a row one run must win before a merge starts galloping
+	private static final int MIN_GALLOP = 7;
+
+	// the rig whose insertionSort and swap are used
+	private TestingRig rig;
+	// the shorter run of each merge is copied here.
+	// It is kept between sorts so it only needs to be allocated again when a longer run is merged.
+	private int[] scratch = new int[0];
+	// the start and length of each run waiting to be merged. 49 runs is enough for any length of array.
+	private int[] runBase = new int[49];
+	private int[] runLength = new int[49];
+	private int stackSize;
+	// galloping is made harder to start when it does not pay off, and easier when it does
+	private int minGallop;
+	// the array and comparator of the sort in progress
+	private int[] data;
+	private IntComparator comp;
+
+	/**
+	 * @param rig The rig whose insertionSort extends the short runs.
+	 */
+	public NaturalMergeSort(TestingRig rig) {
+		this.rig = rig;
+	}
+
+
+	/**
+	 * Sorts a subarray of integers.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		int remaining = high - low + 1;
+		if (remaining < 2) {
+			return;
+		}
+		this.data = data;
+		this.comp = comp;
+		stackSize = 0;
+		minGallop = MIN_GALLOP;
+
+		int minRun = minRunLength(remaining);
+		int start = low;
+		while (remaining > 0) {
+			int run = countRunAndMakeAscending(start, high);
+			if (run < minRun) {
+				// the items already in the run cost one comparison each, so only the new items are really insertion sorted
+				int forced = Math.min(remaining, minRun);
+				rig.insertionSort(data, start, start + forced - 1, comp);
+				run = forced;
+			}
+			runBase[stackSize] = start;
+			runLength[stackSize] = run;
+			stackSize++;
+			mergeCollapse();
+			start += run;
+			remaining -= run;
+		}
+
+		// merge whatever is left, from the top of the stack down
+		while (stackSize > 1) {
+			int n = stackSize - 2;
+			if (n > 0 && runLength[n-1] < runLength[n+1]) {
+				n--;
+			}
+			mergeAt(n);
+		}
+
+		// do not keep the array alive after the sort
+		this.data = null;
+		this.comp = null;
+	}
+
+
+	/**
+	 * Finds the shortest run worth merging for an array of the given size.
+	 * 
+	 * It is between MIN_MERGE/2 and MIN_MERGE, chosen so the array splits into a power of two runs, or slightly fewer,
+	 * which keeps the merges balanced.
+	 * 
+	 * @param size Number of items being sorted.
+	 * @return The minimum length of a run.
+	 */
+	private int minRunLength(int size) {
+		// becomes 1 if any bit shifted off is set
+		int remainder = 0;
+		while (size >= MIN_MERGE) {
+			remainder |= size & 1;
+			size >>= 1;
+		}
+		return size + remainder;
+	}
+
+
+	/**
+	 * Finds the length of the run starting at start, and reverses it if it is descending.
+	 * 
+	 * Only strictly descending runs are reversed, so equal items never change order and the sort stays stable.
+	 * 
+	 * @param start Index the run starts at.
+	 * @param high The largest index the run can reach.
+	 * @return The length of the run.
+	 */
+	private int countRunAndMakeAscending(int start, int high) {
+		int end = start + 1;
+		if (end > high) {
+			return 1;
+		}
+		if (comp.compare(data[end], data[start]) < 0) {
+			end++;
+			while (end <= high && comp.compare(data[end], data[end-1]) < 0) {
+				end++;
+			}
+			// reverse the run in place
+			for (int i=start, j=end-1; i<j; i++, j--) {
+				rig.swap(data, i, j);
+			}
+		}
+		else {
+			end++;
+			while (end <= high && comp.compare(data[end], data[end-1]) >= 0) {
+				end++;
+			}
+		}
+		return end - start;
+	}
+
+
+	/**
+	 * Merges runs on the top of the stack until their lengths shrink quickly enough from the bottom of the stack to the top.
+	 * 
+	 * Each run must be longer than the two above it added together, and longer than the run above it.
+	 * This keeps the merges balanced and the stack short.
+	 */
+	private void mergeCollapse() {
+		while (stackSize > 1) {
+			int n = stackSize - 2;
+			if ((n > 0 && runLength[n-1] <= runLength[n] + runLength[n+1]) || (n > 1 && runLength[n-2] <= runLength[n] + runLength[n-1])) {
+				// merge the middle run with whichever of its neighbours is shorter
+				if (runLength[n-1] < runLength[n+1]) {
+					n--;
+				}
+			}
+			else if (runLength[n] > runLength[n+1]) {
+				break;
+			}
+			mergeAt(n);
+		}
+	}
+
+
+	/**
+	 * Merges the runs at index i and i+1 of the stack.
+	 * 
+	 * @param i Index of the first run on the stack. It must be the second or third run from the top.
+	 */
+	private void mergeAt(int i) {
+		int base1 = runBase[i];
+		int length1 = runLength[i];
+		int base2 = runBase[i+1];
+		int length2 = runLength[i+1];
+
+		runLength[i] = length1 + length2;
+		if (i == stackSize - 3) {
+			runBase[i+1] = runBase[i+2];
+			runLength[i+1] = runLength[i+2];
+		}
+		stackSize--;
+
+		// items at the start of the first run that are before the whole second run are already in place
+		int before = gallopRight(data[base2], data, base1, length1, 0);
+		base1 += before;
+		length1 -= before;
+		if (length1 == 0) {
+			return;
+		}
+		// and so are items at the end of the second run that are after the whole first run
+		length2 = gallopLeft(data[base1 + length1 - 1], data, base2, length2, length2 - 1);
+		if (length2 == 0) {
+			return;
+		}
+
+		// copy the shorter run out, so the merge only needs that much scratch
+		if (length1 <= length2) {
+			mergeLow(base1, length1, base2, length2);
+		}
+		else {
+			mergeHigh(base1, length1, base2, length2);
+		}
+	}
+
+
+	/**
+	 * Finds where key belongs in a sorted stretch of an array, before any items equal to it.
+	 * 
+	 * The search starts at hint and gallops outwards, taking 1, 3, 7, 15... steps, then binary searches the last step.
+	 * This is much faster than a binary search when key belongs close to hint.
+	 * 
+	 * @param key The item being placed.
+	 * @param array The array holding the stretch.
+	 * @param base Index of the first item of the stretch.
+	 * @param length Length of the stretch.
+	 * @param hint Position in the stretch to start searching from.
+	 * @return The number of items in the stretch that are less than key.
+	 */
+	private int gallopLeft(int key, int[] array, int base, int length, int hint) {
+		int lastOffset = 0;
+		int offset = 1;
+		if (comp.compare(key, array[base + hint]) > 0) {
+			// gallop right until array[base+hint+lastOffset] < key <= array[base+hint+offset]
+			int maxOffset = length - hint;
+			while (offset < maxOffset && comp.compare(key, array[base + hint + offset]) > 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+				// overflow
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+			offset = Math.min(offset, maxOffset);
+			lastOffset += hint;
+			offset += hint;
+		}
+		else {
+			// gallop left until array[base+hint-offset] < key <= array[base+hint-lastOffset]
+			int maxOffset = hint + 1;
+			while (offset < maxOffset && comp.compare(key, array[base + hint - offset]) <= 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+			offset = Math.min(offset, maxOffset);
+			int temp = lastOffset;
+			lastOffset = hint - offset;
+			offset = hint - temp;
+		}
+
+		// key belongs somewhere after lastOffset and at or before offset
+		lastOffset++;
+		while (lastOffset < offset) {
+			int mid = lastOffset + ((offset - lastOffset) >>> 1);
+			if (comp.compare(key, array[base + mid]) > 0) {
+				lastOffset = mid + 1;
+			}
+			else {
+				offset = mid;
+			}
+		}
+		return offset;
+	}
+
+
+	/**
+	 * Finds where key belongs in a sorted stretch of an array, after any items equal to it.
+	 * 
+	 * @param key The item being placed.
+	 * @param array The array holding the stretch.
+	 * @param base Index of the first item of the stretch.
+	 * @param length Length of the stretch.
+	 * @param hint Position in the stretch to start searching from.
+	 * @return The number of items in the stretch that are less than or equal to key.
+	 */
+	private int gallopRight(int key, int[] array, int base, int length, int hint) {
+		int lastOffset = 0;
+		int offset = 1;
+		if (comp.compare(key, array[base + hint]) < 0) {
+			// gallop left until array[base+hint-offset] <= key < array[base+hint-lastOffset]
+			int maxOffset = hint + 1;
+			while (offset < maxOffset && comp.compare(key, array[base + hint - offset]) < 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+			offset = Math.min(offset, maxOffset);
+			int temp = lastOffset;
+			lastOffset = hint - offset;
+			offset = hint - temp;
+		}
+		else {
+			// gallop right until array[base+hint+lastOffset] <= key < array[base+hint+offset]
+			int maxOffset = length - hint;
+			while (offset < maxOffset && comp.compare(key, array[base + hint + offset]) >= 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+			offset = Math.min(offset, maxOffset);
+			lastOffset += hint;
+			offset += hint;
+		}
+
+		lastOffset++;
+		while (lastOffset < offset) {
+			int mid = lastOffset + ((offset - lastOffset) >>> 1);
+			if (comp.compare(key, array[base + mid]) < 0) {
+				offset = mid;
+			}
+			else {
+				lastOffset = mid + 1;
+			}
+		}
+		return offset;
+	}
+
+
+	/**
+	 * Merges two adjacent runs from the front, copying the first run out to the scratch buffer.
+	 * 
+	 * The first item of the second run must belong before the first run, and the last item of the first run after the second run,
+	 * which mergeAt has already arranged.
+	 * 
+	 * @param base1 Index of the first run.
+	 * @param length1 Length of the first run, no longer than the second.
+	 * @param base2 Index of the second run, straight after the first.
+	 * @param length2 Length of the second run.
+	 */
+	private void mergeLow(int base1, int length1, int base2, int length2) {
+		int[] temp = ensureScratch(length1);
+		System.arraycopy(data, base1, temp, 0, length1);
+		int cursor1 = 0;
+		int cursor2 = base2;
+		int dest = base1;
+
+		data[dest++] = data[cursor2++];
+		if (--length2 == 0) {
+			System.arraycopy(temp, cursor1, data, dest, length1);
+			return;
+		}
+		if (length1 == 1) {
+			System.arraycopy(data, cursor2, data, dest, length2);
+			data[dest + length2] = temp[cursor1];
+			return;
+		}
+
+		int gallop = minGallop;
+		outer:
+		while (true) {
+			// how many times in a row each run has won
+			int count1 = 0;
+			int count2 = 0;
+
+			// one item at a time, until one run starts winning consistently
+			do {
+				if (comp.compare(data[cursor2], temp[cursor1]) < 0) {
+					data[dest++] = data[cursor2++];
+					count2++;
+					count1 = 0;
+					if (--length2 == 0) {
+						break outer;
+					}
+				}
+				else {
+					data[dest++] = temp[cursor1++];
+					count1++;
+					count2 = 0;
+					if (--length1 == 1) {
+						break outer;
+					}
+				}
+			} while ((count1 | count2) < gallop);
+
+			// gallop, copying whole stretches of a run at a time, until galloping stops paying off
+			do {
+				count1 = gallopRight(data[cursor2], temp, cursor1, length1, 0);
+				if (count1 != 0) {
+					System.arraycopy(temp, cursor1, data, dest, count1);
+					dest += count1;
+					cursor1 += count1;
+					length1 -= count1;
+					if (length1 <= 1) {
+						break outer;
+					}
+				}
+				data[dest++] = data[cursor2++];
+				if (--length2 == 0) {
+					break outer;
+				}
+
+				count2 = gallopLeft(temp[cursor1], data, cursor2, length2, 0);
+				if (count2 != 0) {
+					System.arraycopy(data, cursor2, data, dest, count2);
+					dest += count2;
+					cursor2 += count2;
+					length2 -= count2;
+					if (length2 == 0) {
+						break outer;
+					}
+				}
+				data[dest++] = temp[cursor1++];
+				if (--length1 == 1) {
+					break outer;
+				}
+				gallop--;
+			} while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+			// galloping stopped paying off, so make it harder to start again
+			gallop = Math.max(gallop, 0) + 2;
+		}
+		minGallop = Math.max(gallop, 1);
+
+		if (length1 == 1) {
+			// the last item of the first run belongs after everything left in the second run
+			System.arraycopy(data, cursor2, data, dest, length2);
+			data[dest + length2] = temp[cursor1];
+		}
+		else if (length1 == 0) {
+			throw new IllegalArgumentException("the comparator is not consistent, e.g. compare(a, b) and compare(b, a) disagree");
+		}
+		else {
+			System.arraycopy(temp, cursor1, data, dest, length1);
+		}
+	}
+
+
+	/**
+	 * Merges two adjacent runs from the back, copying the second run out to the scratch buffer.
+	 * 
+	 * @param base1 Index of the first run.
+	 * @param length1 Length of the first run.
+	 * @param base2 Index of the second run, straight after the first.
+	 * @param length2 Length of the second run, shorter than the first.
+	 */
+	private void mergeHigh(int base1, int length1, int base2, int length2) {
+		int[] temp = ensureScratch(length2);
+		System.arraycopy(data, base2, temp, 0, length2);
+		int cursor1 = base1 + length1 - 1;
+		int cursor2 = length2 - 1;
+		int dest = base2 + length2 - 1;
+
+		data[dest--] = data[cursor1--];
+		if (--length1 == 0) {
+			System.arraycopy(temp, 0, data, dest - (length2 - 1), length2);
+			return;
+		}
+		if (length2 == 1) {
+			dest -= length1;
+			cursor1 -= length1;
+			System.arraycopy(data, cursor1 + 1, data, dest + 1, length1);
+			data[dest] = temp[cursor2];
+			return;
+		}
+
+		int gallop = minGallop;
+		outer:
+		while (true) {
+			int count1 = 0;
+			int count2 = 0;
+
+			do {
+				if (comp.compare(temp[cursor2], data[cursor1]) < 0) {
+					data[dest--] = data[cursor1--];
+					count1++;
+					count2 = 0;
+					if (--length1 == 0) {
+						break outer;
+					}
+				}
+				else {
+					data[dest--] = temp[cursor2--];
+					count2++;
+					count1 = 0;
+					if (--length2 == 1) {
+						break outer;
+					}
+				}
+			} while ((count1 | count2) < gallop);
+
+			do {
+				count1 = length1 - gallopRight(temp[cursor2], data, base1, length1, length1 - 1);
+				if (count1 != 0) {
+					dest -= count1;
+					cursor1 -= count1;
+					length1 -= count1;
+					System.arraycopy(data, cursor1 + 1, data, dest + 1, count1);
+					if (length1 == 0) {
+						break outer;
+					}
+				}
+				data[dest--] = temp[cursor2--];
+				if (--length2 == 1) {
+					break outer;
+				}
+
+				count2 = length2 - gallopLeft(data[cursor1], temp, 0, length2, length2 - 1);
+				if (count2 != 0) {
+					dest -= count2;
+					cursor2 -= count2;
+					length2 -= count2;
+					System.arraycopy(temp, cursor2 + 1, data, dest + 1, count2);
+					if (length2 <= 1) {
+						break outer;
+					}
+				}
+				data[dest--] = data[cursor1--];
+				if (--length1 == 0) {
+					break outer;
+				}
+				gallop--;
+			} while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+			gallop = Math.max(gallop, 0) + 2;
+		}
+		minGallop = Math.max(gallop, 1);
+
+		if (length2 == 1) {
+			// the first item of the second run belongs before everything left in the first run
+			dest -= length1;
+			cursor1 -= length1;
+			System.arraycopy(data, cursor1 + 1, data, dest + 1, length1);
+			data[dest] = temp[cursor2];
+		}
+		else if (length2 == 0) {
+			throw new IllegalArgumentException("the comparator is not consistent, e.g. compare(a, b) and compare(b, a) disagree");
+		}
+		else {
+			System.arraycopy(temp, 0, data, dest - (length2 - 1), length2);
+		}
+	}
+
+
+	/**
+	 * @param size Number of items the scratch buffer needs to hold.
+	 * @return The scratch buffer, grown if it was too small.
+	 */
+	private int[] ensureScratch(int size) {
+		if (scratch.length < size) {
+			// grow to the next power of two, so merging ever longer runs does not reallocate every time
+			scratch = new int[Math.max(size, Integer.highestOneBit(size - 1) << 1)];
+		}
+		return scratch;
+	}
+}
@@ -0,0 +1,27 @@
+
+/**
+ * Sorts a subarray of integers with a natural merge sort (TimSort), which is linear on sorted input.
+ */
+public class NaturalMergeSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "NaturalMergeSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.naturalMergeSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return true;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Linear;
+	}
+
+}
@@ -0,0 +1,169 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * A rig that counts the operations its sorts make, to show why one algorithm is faster than another at a given size.
+ * 
+ * Comparisons are counted by wrapping the comparator in a CountingIntComparator.
+ * Everything else is counted by overriding the methods the sorts share: swap, partition, the recursive QuickSorts and InsertionSort.
+ * TestingRig itself has no counting code, so its sorts cost nothing extra when the operations are not being counted.
+ * It extends CuriosityTestingRig so the curiosity sorts are counted too.
+ * 
+ * The sift of HeapSort and the passes of RadixSort are not counted as moves.
+ * Counting slows the sorts down, so testSort times each sort on its own rig and counts it again on a copy of the array here.
+ */
+public class OperationCountingRig extends CuriosityTestingRig {
+	// atomic, as the parallel sorts call the overridden methods from several threads at once
+	private AtomicLong swaps = new AtomicLong();
+	private AtomicLong moves = new AtomicLong();
+	private AtomicInteger maxDepth = new AtomicInteger();
+	private AtomicLong partitions = new AtomicLong();
+	private DoubleAdder imbalance = new DoubleAdder();
+	// the depth limit of the sort being counted, so the level of each recursive call can be worked out from the depth it is given
+	private int startDepth;
+
+	/**
+	 * @param settings The rig whose settings the counted sorts use, so they make the same operations as its sorts.
+	 */
+	public OperationCountingRig(TestingRig settings) {
+		comparator = settings.comparator;
+		parallelGranularity = settings.parallelGranularity;
+		pivotStrategy = settings.pivotStrategy;
+		depthLimited = settings.depthLimited;
+		partitionScheme = settings.partitionScheme;
+		maxCountTableSize = settings.maxCountTableSize;
+		insertionSortCutoff = settings.insertionSortCutoff;
+		leafSort = settings.leafSort;
+		inPlaceMergeSort.setBufferSize(settings.inPlaceMergeSort.getBufferSize());
+	}
+
+
+	/**
+	 * Sorts a subarray with the version of an algorithm that uses this rig, and counts the operations it makes.
+	 * 
+	 * @param algorithm The algorithm you wish to count. The one with the same name in this rig's registry is used.
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The operations the sort made.
+	 */
+	public OperationCounts count(SortAlgorithm algorithm, int[] data, int low, int high, IntComparator comp) {
+		swaps.set(0);
+		moves.set(0);
+		maxDepth.set(0);
+		partitions.set(0);
+		imbalance.reset();
+		// every QuickSort starts with the depth limit of the whole subarray
+		startDepth = depthLimit(high - low + 1);
+
+		CountingIntComparator counting = new CountingIntComparator(comp);
+		getRegistry().get(algorithm.name()).sort(data, low, high, counting);
+
+		long partitioned = partitions.get();
+		return new OperationCounts(counting.getComparisons(), swaps.get(), moves.get(), maxDepth.get(), partitioned,
+				partitioned == 0 ? 0 : imbalance.sum()/partitioned);
+	}
+
+
+	@Override
+	public void swap(int[] data, int index1, int index2) {
+		swaps.incrementAndGet();
+		super.swap(data, index1, index2);
+	}
+
+
+	@Override
+	public void insertionSort(int[] data, IntComparator comp) {
+		insertionSort(data, 0, data.length-1, comp);
+	}
+
+
+	@Override
+	public void insertionSort(int[] data, int low, int high, IntComparator comp) {
+		// every comparison that finds the item belongs further left shifts one item along
+		IntComparator shifting = (int1, int2) -> {
+			int compared = comp.compare(int1, int2);
+			if (compared < 0) {
+				moves.incrementAndGet();
+			}
+			return compared;
+		};
+		super.insertionSort(data, low, high, shifting);
+		// then every item after the first is written into its place
+		moves.addAndGet(Math.max(0, high - low));
+	}
+
+
+	@Override
+	public void countingSort(int[] data, int low, int high, int min, int span, boolean descending) {
+		super.countingSort(data, low, high, min, span, descending);
+		moves.addAndGet(high - low + 1);
+	}
+
+
+	@Override
+	protected void quickSort(int[] data, int low, int high, IntComparator comp, int depth) {
+		recordDepth(depth);
+		super.quickSort(data, low, high, comp, depth);
+	}
+
+
+	@Override
+	protected void hybridQuickSort(int[] data, int low, int high, IntComparator comp, int depth) {
+		recordDepth(depth);
+		super.hybridQuickSort(data, low, high, comp, depth);
+	}
+
+
+	@Override
+	protected void threeWayQuickSort(int[] data, int low, int high, IntComparator comp, int depth) {
+		recordDepth(depth);
+		super.threeWayQuickSort(data, low, high, comp, depth);
+	}
+
+
+	@Override
+	protected int partition(int[] data, int min, int max, IntComparator comp) {
+		int mid = super.partition(data, min, max, comp);
+		recordPartition(mid - min, max - mid);
+		return mid;
+	}
+
+
+	@Override
+	protected long threeWayPartition(int[] data, int min, int max, IntComparator comp) {
+		long bounds = super.threeWayPartition(data, min, max, comp);
+		int lessEnd = (int)(bounds >>> 32);
+		int greaterStart = (int)bounds;
+		recordPartition(lessEnd - min + 1, max - greaterStart + 1);
+		return bounds;
+	}
+
+
+	/**
+	 * Records how deep a recursive QuickSort call is.
+	 * 
+	 * @param depth How many more levels of recursion the call is allowed. It is one less at each level.
+	 */
+	private void recordDepth(int depth) {
+		int level = startDepth - depth + 1;
+		maxDepth.accumulateAndGet(level, Math::max);
+	}
+
+
+	/**
+	 * Records how evenly a partition split its items.
+	 * 
+	 * @param left Number of items that ended up before the pivot.
+	 * @param right Number of items that ended up after the pivot.
+	 */
+	private void recordPartition(int left, int right) {
+		// nothing was split if every item was equal to the pivot
+		if (left + right > 0) {
+			partitions.incrementAndGet();
+			imbalance.add(((double)Math.max(left, right))/(left + right));
+		}
+	}
+}
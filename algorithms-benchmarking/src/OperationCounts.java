@@ -0,0 +1,23 @@
+
+/**
+ * The operations one sort made, counted by OperationCountingRig.
+ * 
+ * @param comparisons Number of times the comparator was called.
+ * @param swaps Number of times two items were swapped.
+ * @param moves Number of items written one at a time outside of a swap, e.g. shifted along by InsertionSort or written back by CountingSort.
+ * @param maxDepth Deepest level the QuickSorts recursed to, or 0 for the algorithms that do not recurse.
+ * @param partitions Number of partitions that split items either side of a pivot.
+ * @param imbalance Mean fraction of the items of each partition that ended up on its larger side.
+ *        0.5 is a perfect split and 1 puts everything on one side. 0 if there were no partitions.
+ */
+public record OperationCounts(long comparisons, long swaps, long moves, int maxDepth, long partitions, double imbalance) {
+	// the names of the counts, in the order values returns them
+	public static final String[] NAMES = {"comparisons", "swaps", "moves", "maxDepth", "partitions", "imbalance"};
+	
+	/**
+	 * @return The counts in the same order as NAMES, so they can be summed and written as columns.
+	 */
+	public double[] values() {
+		return new double[] {comparisons, swaps, moves, maxDepth, partitions, imbalance};
+	}
+}
@@ -0,0 +1,27 @@
+
+/**
+ * Hybrid-QuickSorts a subarray of integers using every core.
+ */
+public class ParallelHybridQuickSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "ParallelHybridQuickSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.parallelHybridQuickSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Logarithmic;
+	}
+
+}
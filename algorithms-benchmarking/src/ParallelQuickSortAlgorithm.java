@@ -0,0 +1,27 @@
+
+/**
+ * QuickSorts a subarray of integers using every core.
+ */
+public class ParallelQuickSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "ParallelQuickSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.parallelQuickSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Logarithmic;
+	}
+
+}
@@ -0,0 +1,70 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * QuickSorts a subarray of integers on a ForkJoinPool.
+ * 
+ * After partitioning, the two sides of the pivot are independent, so they are sorted as two separate tasks.
+ * Subarrays smaller than the granularity are not worth splitting up, so they are sorted on the current thread.
+ */
+public class ParallelQuickSortTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+	
+	// the rig that holds the sequential algorithms
+	private TestingRig rig;
+	private int[] data;
+	private int low;
+	private int high;
+	private IntComparator comp;
+	// subarrays with fewer items than this are sorted sequentially
+	private int granularity;
+	// True to sort small subarrays with hybridQuickSort, False to use quickSort
+	private boolean hybrid;
+	// how many more levels of recursion are allowed before switching to HeapSort
+	private int depth;
+	
+	/**
+	 * @param rig The rig that holds the sequential algorithms.
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param granularity Subarrays with fewer items than this are sorted sequentially.
+	 * @param hybrid True to sort small subarrays with hybridQuickSort, False to use quickSort.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	public ParallelQuickSortTask(TestingRig rig, int[] data, int low, int high, IntComparator comp, int granularity, boolean hybrid, int depth) {
+		this.rig = rig;
+		this.data = data;
+		this.low = low;
+		this.high = high;
+		this.comp = comp;
+		this.granularity = granularity;
+		this.hybrid = hybrid;
+		this.depth = depth;
+	}
+
+	@Override
+	protected void compute() {
+		if (high - low < granularity) {
+			// too small to be worth splitting up, so sort on this thread
+			if (hybrid) {
+				rig.hybridQuickSort(data, low, high, comp, depth);
+			}
+			else {
+				rig.quickSort(data, low, high, comp, depth);
+			}
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			rig.heapSort(data, low, high, comp);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = rig.partition(data, low, high, comp);
+			
+			// mid is already in the correct position, so do not try to sort it again
+			invokeAll(new ParallelQuickSortTask(rig, data, low, mid-1, comp, granularity, hybrid, depth-1),
+					new ParallelQuickSortTask(rig, data, mid+1, high, comp, granularity, hybrid, depth-1));
+		}
+	}
+}
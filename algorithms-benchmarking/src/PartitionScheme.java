@@ -0,0 +1,13 @@
+
+/**
+ * How hybridQuickSort partitions each subarray.
+ * 
+ * Lomuto splits the subarray into items less than the pivot and items greater than or equal to it.
+ * ThreeWay also groups the items equal to the pivot in the middle, so they are never looked at again.
+ * Block splits them the same way as Lomuto, but scans blocks from both ends without branching on the comparisons, then swaps the misplaced items in bulk.
+ */
+public enum PartitionScheme {
+	Lomuto,
+	ThreeWay,
+	Block
+}
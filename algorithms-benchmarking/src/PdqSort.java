@@ -0,0 +1,289 @@
+
+/**
+ * Pattern-defeating QuickSort (pdqsort, Orson Peters) for arrays of integers.
+ * 
+ * It is a QuickSort that notices the patterns that make QuickSort slow, or that let it finish early:
+ * the pivot is the median of three, or of three medians of three on large subarrays;
+ * a partition that swapped nothing hints the subarray may already be sorted, so a partial insertion sort is tried, which gives up after a few moves;
+ * a subarray whose pivot equals the item before it is full of duplicates, so the items equal to the pivot are split off and never looked at again;
+ * and a very unbalanced partition swaps a few items around to break up whatever pattern caused it.
+ * After log2(n) unbalanced partitions it falls back to HeapSort, so it is never worse than O(n log n).
+ * It is not stable.
+ */
+public class PdqSort {
+	// subarrays shorter than this are insertion sorted
+	private static final int INSERTION_SORT_THRESHOLD = 24;
+	// subarrays longer than this use the ninther as their pivot
+	private static final int NINTHER_THRESHOLD = 128;
+	// the partial insertion sort gives up once it has moved items this many places in total
+	private static final int PARTIAL_INSERTION_SORT_LIMIT = 8;
+
+	// the rig whose insertionSort, heapSort and swap are used
+	private TestingRig rig;
+
+	/**
+	 * @param rig The rig whose insertionSort and heapSort sort the small and the badly partitioned subarrays.
+	 */
+	public PdqSort(TestingRig rig) {
+		this.rig = rig;
+	}
+
+
+	/**
+	 * Sorts a subarray of integers.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		int size = high - low + 1;
+		if (size < 2) {
+			return;
+		}
+		// 31 - numberOfLeadingZeros is log2 rounded down
+		sort(data, low, high + 1, comp, 31 - Integer.numberOfLeadingZeros(size), true);
+	}
+
+
+	/**
+	 * Sorts data[begin..end-1], recursing on the left of each partition and looping on the right.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param begin Index of the first item to sort.
+	 * @param end Index after the last item to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param badAllowed How many more unbalanced partitions are allowed before switching to HeapSort.
+	 * @param leftmost True if this is the leftmost subarray, False if data[begin-1] is a pivot no greater than any item in it.
+	 */
+	private void sort(int[] data, int begin, int end, IntComparator comp, int badAllowed, boolean leftmost) {
+		while (true) {
+			int size = end - begin;
+			if (size < INSERTION_SORT_THRESHOLD) {
+				rig.insertionSort(data, begin, end - 1, comp);
+				return;
+			}
+
+			// move the pivot to data[begin]
+			int half = size / 2;
+			if (size > NINTHER_THRESHOLD) {
+				sort3(data, begin, begin + half, end - 1, comp);
+				sort3(data, begin + 1, begin + half - 1, end - 2, comp);
+				sort3(data, begin + 2, begin + half + 1, end - 3, comp);
+				sort3(data, begin + half - 1, begin + half, begin + half + 1, comp);
+				rig.swap(data, begin, begin + half);
+			}
+			else {
+				sort3(data, begin + half, begin, end - 1, comp);
+			}
+
+			if (!leftmost && comp.compare(data[begin - 1], data[begin]) >= 0) {
+				// the pivot equals the pivot left of this subarray, so put every item equal to it on the left, where they are already sorted
+				begin = partitionLeft(data, begin, end, comp) + 1;
+				continue;
+			}
+
+			long partitioned = partitionRight(data, begin, end, comp);
+			int pivot = (int)(partitioned >>> 1);
+			boolean alreadyPartitioned = (partitioned & 1) == 1;
+			int leftSize = pivot - begin;
+			int rightSize = end - (pivot + 1);
+
+			if (leftSize < size / 8 || rightSize < size / 8) {
+				// a very unbalanced partition
+				badAllowed--;
+				if (badAllowed == 0) {
+					rig.heapSort(data, begin, end - 1, comp);
+					return;
+				}
+				// swap some items around to break up the pattern, so the next pivots are different
+				if (leftSize >= INSERTION_SORT_THRESHOLD) {
+					rig.swap(data, begin, begin + leftSize / 4);
+					rig.swap(data, pivot - 1, pivot - leftSize / 4);
+					if (leftSize > NINTHER_THRESHOLD) {
+						rig.swap(data, begin + 1, begin + leftSize / 4 + 1);
+						rig.swap(data, begin + 2, begin + leftSize / 4 + 2);
+						rig.swap(data, pivot - 2, pivot - (leftSize / 4 + 1));
+						rig.swap(data, pivot - 3, pivot - (leftSize / 4 + 2));
+					}
+				}
+				if (rightSize >= INSERTION_SORT_THRESHOLD) {
+					rig.swap(data, pivot + 1, pivot + 1 + rightSize / 4);
+					rig.swap(data, end - 1, end - rightSize / 4);
+					if (rightSize > NINTHER_THRESHOLD) {
+						rig.swap(data, pivot + 2, pivot + 2 + rightSize / 4);
+						rig.swap(data, pivot + 3, pivot + 3 + rightSize / 4);
+						rig.swap(data, end - 2, end - (1 + rightSize / 4));
+						rig.swap(data, end - 3, end - (2 + rightSize / 4));
+					}
+				}
+			}
+			else if (alreadyPartitioned && partialInsertionSort(data, begin, pivot, comp) && partialInsertionSort(data, pivot + 1, end, comp)) {
+				// nothing had to be swapped and both sides were close enough to sorted to finish with a few moves
+				return;
+			}
+
+			sort(data, begin, pivot, comp, badAllowed, leftmost);
+			begin = pivot + 1;
+			leftmost = false;
+		}
+	}
+
+
+	/**
+	 * Partitions data[begin..end-1] around the pivot in data[begin], putting the items equal to the pivot on the right.
+	 * 
+	 * There must be an item no less than the pivot on the right, which the median of three guarantees.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param begin Index of the pivot, and the first item to partition.
+	 * @param end Index after the last item to partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The final index of the pivot in the upper bits, and 1 in the lowest bit if no items had to be swapped.
+	 */
+	private long partitionRight(int[] data, int begin, int end, IntComparator comp) {
+		int pivot = data[begin];
+		int first = begin;
+		int last = end;
+
+		// find the first item not less than the pivot, and the last item less than it
+		do {
+			first++;
+		} while (comp.compare(data[first], pivot) < 0);
+		if (first - 1 == begin) {
+			// nothing is known to be less than the pivot on the left, so the search from the right needs a bound
+			do {
+				last--;
+			} while (first < last && comp.compare(data[last], pivot) >= 0);
+		}
+		else {
+			do {
+				last--;
+			} while (comp.compare(data[last], pivot) >= 0);
+		}
+
+		boolean alreadyPartitioned = first >= last;
+		while (first < last) {
+			rig.swap(data, first, last);
+			do {
+				first++;
+			} while (comp.compare(data[first], pivot) < 0);
+			do {
+				last--;
+			} while (comp.compare(data[last], pivot) >= 0);
+		}
+
+		int pivotIndex = first - 1;
+		data[begin] = data[pivotIndex];
+		data[pivotIndex] = pivot;
+		return ((long)pivotIndex << 1) | (alreadyPartitioned ? 1 : 0);
+	}
+
+
+	/**
+	 * Partitions data[begin..end-1] around the pivot in data[begin], putting the items equal to the pivot on the left.
+	 * 
+	 * Used when the pivot equals the pivot left of the subarray, so everything left of the returned index is equal to it.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param begin Index of the pivot, and the first item to partition.
+	 * @param end Index after the last item to partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The final index of the pivot.
+	 */
+	private int partitionLeft(int[] data, int begin, int end, IntComparator comp) {
+		int pivot = data[begin];
+		int first = begin;
+		int last = end;
+
+		do {
+			last--;
+		} while (comp.compare(pivot, data[last]) < 0);
+		if (last + 1 == end) {
+			do {
+				first++;
+			} while (first < last && comp.compare(pivot, data[first]) >= 0);
+		}
+		else {
+			do {
+				first++;
+			} while (comp.compare(pivot, data[first]) >= 0);
+		}
+
+		while (first < last) {
+			rig.swap(data, first, last);
+			do {
+				last--;
+			} while (comp.compare(pivot, data[last]) < 0);
+			do {
+				first++;
+			} while (comp.compare(pivot, data[first]) >= 0);
+		}
+
+		data[begin] = data[last];
+		data[last] = pivot;
+		return last;
+	}
+
+
+	/**
+	 * Insertion sorts data[begin..end-1], unless that turns out to need many moves.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param begin Index of the first item to sort.
+	 * @param end Index after the last item to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return True if the subarray is now sorted, False if it gave up after moving items PARTIAL_INSERTION_SORT_LIMIT places.
+	 */
+	private boolean partialInsertionSort(int[] data, int begin, int end, IntComparator comp) {
+		int moved = 0;
+		for (int current=begin+1; current<end; current++) {
+			if (comp.compare(data[current], data[current-1]) < 0) {
+				int item = data[current];
+				int sift = current;
+				do {
+					data[sift] = data[sift-1];
+					sift--;
+				} while (sift > begin && comp.compare(item, data[sift-1]) < 0);
+				data[sift] = item;
+				moved += current - sift;
+			}
+			if (moved > PARTIAL_INSERTION_SORT_LIMIT) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Sorts the items at three indexes, so the median ends up at the second.
+	 * 
+	 * @param data Array of integers.
+	 * @param a The first index.
+	 * @param b The second index.
+	 * @param c The third index.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void sort3(int[] data, int a, int b, int c, IntComparator comp) {
+		sort2(data, a, b, comp);
+		sort2(data, b, c, comp);
+		sort2(data, a, b, comp);
+	}
+
+
+	/**
+	 * Sorts the items at two indexes.
+	 * 
+	 * @param data Array of integers.
+	 * @param a The first index.
+	 * @param b The second index.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void sort2(int[] data, int a, int b, IntComparator comp) {
+		if (comp.compare(data[b], data[a]) < 0) {
+			rig.swap(data, a, b);
+		}
+	}
+}
@@ -0,0 +1,27 @@
+
+/**
+ * Sorts a subarray of integers with pattern-defeating QuickSort (pdqsort).
+ */
+public class PdqSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "PdqSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.pdqSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Logarithmic;
+	}
+
+}
@@ -0,0 +1,15 @@
+
+/**
+ * How partition chooses the pivot for QuickSort.
+ * 
+ * First is the original behaviour, which is O(n^2) on sorted, reversed and all equal arrays.
+ * MedianOfThree uses the median of the first, middle and last items.
+ * Ninther uses the median of three medians of three, spread across the subarray.
+ * Random uses a random item.
+ */
+public enum PivotStrategy {
+	First,
+	MedianOfThree,
+	Ninther,
+	Random
+}
@@ -0,0 +1,27 @@
+
+/**
+ * QuickSorts a subarray of integers.
+ */
+public class QuickSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "QuickSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.quickSort(data, low, high, comp);
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Logarithmic;
+	}
+
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ * Least significant digit radix sort for arrays of integers.
+ * 
+ * RadixSort does not compare items. It splits each integer into digits of digitBits bits,
+ * then stably distributes the items by each digit in turn, starting from the least significant.
+ * Every pass is linear, so it beats the comparison sorts on large arrays.
+ * It can only sort integers from smallest to largest.
+ */
+public class RadixSort {
+	// number of bits in each digit. 8 bits takes 4 passes, 11 bits takes 3 passes.
+	private int digitBits;
+	// the items are distributed back and forth between the array and this buffer.
+	// It is kept between sorts so it only needs to be allocated again when a larger array is sorted.
+	private int[] scratch = new int[0];
+	// how many items have each digit, one row per pass. It is allocated once and cleared at the start of each sort.
+	private int[][] counts;
+	
+	public RadixSort() {
+		this(8);
+	}
+	
+	/**
+	 * @param digitBits Number of bits in each digit, between 1 and 16.
+	 */
+	public RadixSort(int digitBits) {
+		if (digitBits < 1 || digitBits > 16) {
+			throw new IllegalArgumentException("digitBits must be between 1 and 16, not " + digitBits);
+		}
+		this.digitBits = digitBits;
+		this.counts = new int[(32 + digitBits - 1) / digitBits][1 << digitBits];
+	}
+	
+	
+	/**
+	 * RadixSorts an array of integers from smallest to largest.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void sort(int[] data) {
+		sort(data, 0, data.length-1);
+	}
+	
+	
+	/**
+	 * RadixSorts a subarray of integers from smallest to largest.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 */
+	public void sort(int[] data, int low, int high) {
+		int size = high - low + 1;
+		if (size < 2) {
+			return;
+		}
+		if (scratch.length < size) {
+			scratch = new int[size];
+		}
+		
+		int passes = counts.length;
+		int mask = (1 << digitBits) - 1;
+		
+		// count every digit of every item in one scan, rather than one scan per pass.
+		// Flipping the sign bit makes negative numbers come before positive numbers.
+		for (int pass=0; pass<passes; pass++) {
+			Arrays.fill(counts[pass], 0);
+		}
+		for (int i=low; i<=high; i++) {
+			int key = data[i] ^ Integer.MIN_VALUE;
+			for (int pass=0; pass<passes; pass++) {
+				counts[pass][(key >>> (pass*digitBits)) & mask]++;
+			}
+		}
+		
+		// the items move from source to destination on each pass, then the two swap roles
+		int[] source = data;
+		int sourceStart = low;
+		int[] destination = scratch;
+		int destinationStart = 0;
+		
+		for (int pass=0; pass<passes; pass++) {
+			int shift = pass*digitBits;
+			int[] count = counts[pass];
+			
+			// if every item has the same digit this pass would not move anything
+			if (count[((source[sourceStart] ^ Integer.MIN_VALUE) >>> shift) & mask] == size) {
+				continue;
+			}
+			
+			// turn the counts into the index each digit starts at
+			int next = destinationStart;
+			for (int digit=0; digit<count.length; digit++) {
+				int digitCount = count[digit];
+				count[digit] = next;
+				next += digitCount;
+			}
+			
+			for (int i=sourceStart; i<sourceStart+size; i++) {
+				int item = source[i];
+				int digit = ((item ^ Integer.MIN_VALUE) >>> shift) & mask;
+				destination[count[digit]] = item;
+				count[digit]++;
+			}
+			
+			int[] temp = source;
+			source = destination;
+			destination = temp;
+			int tempStart = sourceStart;
+			sourceStart = destinationStart;
+			destinationStart = tempStart;
+		}
+		
+		// an odd number of passes leaves the sorted items in the scratch buffer
+		if (source != data) {
+			System.arraycopy(source, sourceStart, data, low, size);
+		}
+	}
+}
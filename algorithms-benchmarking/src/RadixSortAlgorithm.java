@@ -0,0 +1,29 @@
+
+/**
+ * RadixSorts a subarray of integers.
+ * 
+ * RadixSort does not compare items, so the comparator is ignored and it always sorts from smallest to largest.
+ */
+public class RadixSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "RadixSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.radixSort.sort(data, low, high);
+	}
+
+	@Override
+	public boolean isStable() {
+		return true;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Linear;
+	}
+
+}
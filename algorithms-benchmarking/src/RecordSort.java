@@ -0,0 +1,119 @@
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorts records by a primitive key, without calling a Comparator for every comparison.
+ * 
+ * The key of every record is pulled out once into a long[], alongside a permutation holding the index of each record.
+ * The keys are sorted by LongSort.hybridQuickSort, which moves the permutation along with them,
+ * and then the records are put into the order given by the permutation.
+ * So the records are only touched twice, and the comparisons are all between longs in one array.
+ * 
+ * Records with equal keys keep their original order (the sort is stable).
+ */
+public class RecordSort {
+	// sorts the keys, carrying the permutation along with them
+	private LongSort longSort;
+
+	/**
+	 * @param rig The rig that holds the settings of the sorting algorithms.
+	 */
+	public RecordSort(TestingRig rig) {
+		this.longSort = new LongSort(rig);
+	}
+
+
+	/**
+	 * Sorts records by an int key, from smallest to largest.
+	 * 
+	 * @param records The records you wish to sort.
+	 * @param key Pulls the key out of a record.
+	 */
+	public <T> void sortByIntKey(T[] records, ToIntFunction<? super T> key) {
+		long[] keys = new long[records.length];
+		for (int i=0; i<records.length; i++) {
+			keys[i] = key.applyAsInt(records[i]);
+		}
+		sortByKeys(records, keys);
+	}
+
+
+	/**
+	 * Sorts records by a long key, from smallest to largest.
+	 * 
+	 * @param records The records you wish to sort.
+	 * @param key Pulls the key out of a record.
+	 */
+	public <T> void sortByLongKey(T[] records, ToLongFunction<? super T> key) {
+		long[] keys = new long[records.length];
+		for (int i=0; i<records.length; i++) {
+			keys[i] = key.applyAsLong(records[i]);
+		}
+		sortByKeys(records, keys);
+	}
+
+
+	/**
+	 * Sorts records by a double key, in the same order as Double.compare.
+	 * 
+	 * @param records The records you wish to sort.
+	 * @param key Pulls the key out of a record.
+	 */
+	public <T> void sortByDoubleKey(T[] records, ToDoubleFunction<? super T> key) {
+		long[] keys = new long[records.length];
+		for (int i=0; i<records.length; i++) {
+			keys[i] = sortableBits(key.applyAsDouble(records[i]));
+		}
+		sortByKeys(records, keys);
+	}
+
+
+	/**
+	 * Turns a double into a long that compares the same way as Double.compare.
+	 * 
+	 * The bits of a positive double already order the same way as the double.
+	 * For a negative double every bit except the sign is flipped, so larger magnitudes become smaller longs.
+	 * This puts -0.0 just before 0.0, and doubleToLongBits makes every NaN the same value, larger than infinity.
+	 * 
+	 * @param value The double.
+	 * @return A long with the same order as the double.
+	 */
+	public long sortableBits(double value) {
+		long bits = Double.doubleToLongBits(value);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+
+
+	/**
+	 * Sorts records by keys that have already been pulled out of them.
+	 * 
+	 * @param records The records you wish to sort.
+	 * @param keys keys[i] is the key of records[i]. The array is sorted as well.
+	 */
+	private <T> void sortByKeys(T[] records, long[] keys) {
+		int[] permutation = new int[records.length];
+		for (int i=0; i<permutation.length; i++) {
+			permutation[i] = i;
+		}
+		longSort.hybridQuickSort(keys, permutation);
+
+		// QuickSort is not stable, but records with equal keys are next to each other,
+		// so putting their original indexes back in order makes it stable
+		int start = 0;
+		for (int i=1; i<=keys.length; i++) {
+			if (i == keys.length || keys[i] != keys[start]) {
+				if (i - start > 1) {
+					Arrays.sort(permutation, start, i);
+				}
+				start = i;
+			}
+		}
+
+		T[] original = records.clone();
+		for (int i=0; i<records.length; i++) {
+			records[i] = original[permutation[i]];
+		}
+	}
+}
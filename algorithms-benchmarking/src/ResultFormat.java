@@ -0,0 +1,11 @@
+
+/**
+ * How ResultSink writes each trial and the summary of each size.
+ * 
+ * Csv writes a header line, then one comma separated line per trial.
+ * Json writes one JSON object per line (JSON Lines), so the file can be read while it is still being written.
+ */
+public enum ResultFormat {
+	Csv,
+	Json
+}
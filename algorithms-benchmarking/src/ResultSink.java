@@ -0,0 +1,364 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+
+/**
+ * Streams the time of every trial of a test to a file as soon as it finishes, and summarises each size when closed.
+ * 
+ * Nothing is kept per trial, only a LatencyHistogram per size, so a test uses the same memory however many trials it runs.
+ * The trials are written to fileName + "Trials" and the summaries to fileName + "Summary",
+ * each with a .csv or .json extension depending on the format.
+ * 
+ * If the operations of each trial are counted, they are written next to its time, and their means next to the summary of each size.
+ * 
+ * The memory each trial allocated and the garbage collections that ran during it are always written.
+ * So are the insertion sort cutoff and pivot strategy, as they may come from a tuning file that differs between machines.
+ * Trials with a collection can be left out of the summaries, as the pause is timed along with the sort.
+ */
+public class ResultSink implements Closeable {
+	// the percentiles written to the summary, and the names of their columns
+	private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+	private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+
+	private String fileName;
+	private ResultFormat format;
+	private PrintStream trials;
+	// True if every trial has its OperationCounts written with it
+	private boolean counted;
+	// the sizes in the order they were tested, each with the histogram of its trial times
+	private LinkedHashMap<Integer, LatencyHistogram> sizeToHistogram = new LinkedHashMap<Integer, LatencyHistogram>();
+	// the sum of each operation count over the trials of each size, in the order of OperationCounts.NAMES
+	private LinkedHashMap<Integer, double[]> sizeToCountSums = new LinkedHashMap<Integer, double[]>();
+	// the number of trials, the number with a collection, the bytes allocated and the nanoseconds taken by every trial of each size
+	private LinkedHashMap<Integer, long[]> sizeToMemory = new LinkedHashMap<Integer, long[]>();
+	// True leaves the trials with a collection out of the histograms and summaries
+	private boolean excludeCollected;
+	// the test the summaries are for
+	private String algorithm;
+	private String distribution;
+	private long seed;
+	// the hybridQuickSort settings of the rig, which may have been loaded from its tuning file
+	private int insertionSortCutoff;
+	private PivotStrategy pivotStrategy;
+
+	/**
+	 * @param fileName The filepath and name the results are written to, without the extension.
+	 * @param format How the results are written.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public ResultSink(String fileName, ResultFormat format) throws IOException {
+		this(fileName, format, false);
+	}
+	
+	/**
+	 * @param fileName The filepath and name the results are written to, without the extension.
+	 * @param format How the results are written.
+	 * @param counted True if every trial will be recorded with its OperationCounts.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public ResultSink(String fileName, ResultFormat format, boolean counted) throws IOException {
+		this.fileName = fileName;
+		this.format = format;
+		this.counted = counted;
+		File file = new File(fileName + "Trials" + extension());
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		trials = new PrintStream(file);
+		if (format == ResultFormat.Csv) {
+			trials.println("algorithm, size, distribution, seed, insertionSortCutoff, pivotStrategy, trial, nanoseconds, allocatedBytes, collections, collectionMs, excluded" + countHeader());
+		}
+	}
+
+
+	/**
+	 * Writes one trial, and records it in the histogram for its size.
+	 * 
+	 * @param algorithm Name of the algorithm that was tested.
+	 * @param size Size of the array that was sorted.
+	 * @param distribution Shape of the array that was sorted.
+	 * @param seed Seed the arrays were generated from.
+	 * @param trial Number of the trial for this size, from 0.
+	 * @param nanoseconds Time the sort took.
+	 */
+	public void record(String algorithm, int size, String distribution, long seed, int trial, long nanoseconds) {
+		record(algorithm, size, distribution, seed, trial, nanoseconds, null, null);
+	}
+	
+	
+	/**
+	 * Writes one trial with its memory and the operations it made, and records it in the histogram for its size.
+	 * 
+	 * @param algorithm Name of the algorithm that was tested.
+	 * @param size Size of the array that was sorted.
+	 * @param distribution Shape of the array that was sorted.
+	 * @param seed Seed the arrays were generated from.
+	 * @param trial Number of the trial for this size, from 0.
+	 * @param nanoseconds Time the sort took.
+	 * @param memory The memory the sort allocated and the collections during it, or null if they were not measured.
+	 * @param counts The operations the sort made, or null if they were not counted.
+	 */
+	public void record(String algorithm, int size, String distribution, long seed, int trial, long nanoseconds, TrialMemory memory, OperationCounts counts) {
+		this.algorithm = algorithm;
+		this.distribution = distribution;
+		this.seed = seed;
+		if (memory == null) {
+			memory = new TrialMemory(-1, 0, 0);
+		}
+		boolean excluded = excludeCollected && memory.collected();
+		
+		long[] totals = sizeToMemory.get(size);
+		if (totals == null) {
+			totals = new long[4];
+			sizeToMemory.put(size, totals);
+		}
+		totals[0]++;
+		totals[1] += memory.collected() ? 1 : 0;
+		totals[2] += Math.max(0, memory.allocatedBytes());
+		totals[3] += nanoseconds;
+		
+		StringBuilder line = new StringBuilder();
+		if (format == ResultFormat.Csv) {
+			line.append(algorithm).append(", ").append(size).append(", ").append(distribution).append(", ").append(seed)
+					.append(", ").append(insertionSortCutoff).append(", ").append(pivotStrategy)
+					.append(", ").append(trial).append(", ").append(nanoseconds);
+		}
+		else {
+			line.append("{\"algorithm\": \"").append(algorithm).append("\", \"size\": ").append(size)
+					.append(", \"distribution\": \"").append(distribution).append("\", \"seed\": ").append(seed)
+					.append(", \"insertionSortCutoff\": ").append(insertionSortCutoff).append(", \"pivotStrategy\": \"").append(pivotStrategy).append("\"")
+					.append(", \"trial\": ").append(trial).append(", \"nanoseconds\": ").append(nanoseconds);
+		}
+		appendField(line, "allocatedBytes", memory.allocatedBytes());
+		appendField(line, "collections", memory.collections());
+		appendField(line, "collectionMs", memory.collectionMs());
+		appendField(line, "excluded", excluded);
+		if (counted && counts != null) {
+			// written one by one, so the whole number counts are not written as doubles
+			appendField(line, "comparisons", counts.comparisons());
+			appendField(line, "swaps", counts.swaps());
+			appendField(line, "moves", counts.moves());
+			appendField(line, "maxDepth", counts.maxDepth());
+			appendField(line, "partitions", counts.partitions());
+			appendField(line, "imbalance", counts.imbalance());
+			
+			double[] sums = sizeToCountSums.get(size);
+			if (sums == null) {
+				sums = new double[OperationCounts.NAMES.length];
+				sizeToCountSums.put(size, sums);
+			}
+			// the means are over the same trials as the times
+			if (!excluded) {
+				double[] values = counts.values();
+				for (int i=0; i<values.length; i++) {
+					sums[i] += values[i];
+				}
+			}
+		}
+		if (format == ResultFormat.Json) {
+			line.append("}");
+		}
+		trials.println(line);
+		// the histogram is created even if the trial is excluded, so the size is still summarised
+		LatencyHistogram histogram = getHistogram(size);
+		if (!excluded) {
+			histogram.record(nanoseconds);
+		}
+	}
+	
+	
+	/**
+	 * Sets the hybridQuickSort settings written next to the seed of every trial and summary.
+	 * 
+	 * @param insertionSortCutoff The insertion sort cutoff of the rig that ran the test.
+	 * @param pivotStrategy The pivot strategy of the rig that ran the test.
+	 */
+	public void setSettings(int insertionSortCutoff, PivotStrategy pivotStrategy) {
+		this.insertionSortCutoff = insertionSortCutoff;
+		this.pivotStrategy = pivotStrategy;
+	}
+	
+	
+	/**
+	 * Sets whether trials with a garbage collection are left out of the histograms and summaries.
+	 * 
+	 * They are still written to the trials file, marked as excluded.
+	 * 
+	 * @param excludeCollected True to leave them out, False to keep them.
+	 */
+	public void setExcludeCollected(boolean excludeCollected) {
+		this.excludeCollected = excludeCollected;
+	}
+	
+	
+	/**
+	 * @return The number of trials recorded so far that had a garbage collection, whether or not they were excluded.
+	 */
+	public long getCollectedTrials() {
+		long collected = 0;
+		for (long[] totals : sizeToMemory.values()) {
+			collected += totals[1];
+		}
+		return collected;
+	}
+	
+	
+	/**
+	 * @return The rate every trial recorded so far allocated memory at, in MB/s.
+	 */
+	public double getAllocationRate() {
+		long bytes = 0;
+		long nanoseconds = 0;
+		for (long[] totals : sizeToMemory.values()) {
+			bytes += totals[2];
+			nanoseconds += totals[3];
+		}
+		return allocationRate(bytes, nanoseconds);
+	}
+
+
+	/**
+	 * Gets the histogram of the trial times of one size.
+	 * 
+	 * @param size The size.
+	 * @return The histogram, which is empty if no trials of that size have been recorded.
+	 */
+	public LatencyHistogram getHistogram(int size) {
+		LatencyHistogram histogram = sizeToHistogram.get(size);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			sizeToHistogram.put(size, histogram);
+		}
+		return histogram;
+	}
+
+
+	/**
+	 * Writes the summary of every size, in the order they were tested, and closes the files.
+	 */
+	@Override
+	public void close() throws IOException {
+		trials.close();
+		try (PrintStream summary = new PrintStream(new File(fileName + "Summary" + extension()))) {
+			if (format == ResultFormat.Csv) {
+				StringBuilder header = new StringBuilder("algorithm, size, distribution, seed, insertionSortCutoff, pivotStrategy, trials, mean, deviation, min");
+				for (String name : PERCENTILE_NAMES) {
+					header.append(", ").append(name);
+				}
+				summary.println(header.append(", max, unit, collectedTrials, allocatedBytes, allocationRate").append(countHeader()));
+			}
+
+			for (int size : sizeToHistogram.keySet()) {
+				LatencyHistogram histogram = sizeToHistogram.get(size);
+				StringBuilder line = new StringBuilder();
+				if (format == ResultFormat.Csv) {
+					line.append(algorithm).append(", ").append(size).append(", ").append(distribution).append(", ").append(seed)
+							.append(", ").append(insertionSortCutoff).append(", ").append(pivotStrategy)
+							.append(", ").append(histogram.getCount()).append(", ").append(histogram.getMean()).append(", ")
+							.append(histogram.getStandardDeviation()).append(", ").append(histogram.getMin());
+					for (double percentile : PERCENTILES) {
+						line.append(", ").append(histogram.getValueAtPercentile(percentile));
+					}
+					line.append(", ").append(histogram.getMax()).append(", ns");
+					appendMemory(line, size);
+					appendCountMeans(line, size, histogram.getCount());
+				}
+				else {
+					line.append("{\"algorithm\": \"").append(algorithm).append("\", \"size\": ").append(size)
+							.append(", \"distribution\": \"").append(distribution).append("\", \"seed\": ").append(seed)
+							.append(", \"insertionSortCutoff\": ").append(insertionSortCutoff).append(", \"pivotStrategy\": \"").append(pivotStrategy).append("\"")
+							.append(", \"trials\": ").append(histogram.getCount()).append(", \"mean\": ").append(histogram.getMean())
+							.append(", \"deviation\": ").append(histogram.getStandardDeviation()).append(", \"min\": ").append(histogram.getMin());
+					for (int i=0; i<PERCENTILES.length; i++) {
+						line.append(", \"").append(PERCENTILE_NAMES[i]).append("\": ").append(histogram.getValueAtPercentile(PERCENTILES[i]));
+					}
+					line.append(", \"max\": ").append(histogram.getMax()).append(", \"unit\": \"ns\"");
+					appendMemory(line, size);
+					appendCountMeans(line, size, histogram.getCount());
+					line.append("}");
+				}
+				summary.println(line);
+			}
+		}
+	}
+
+
+	/**
+	 * Adds the memory of one size to its summary line.
+	 * 
+	 * @param line The summary line being written.
+	 * @param size The size the line summarises.
+	 */
+	private void appendMemory(StringBuilder line, int size) {
+		// every trial of the size, including any that were excluded
+		long[] totals = sizeToMemory.getOrDefault(size, new long[4]);
+		appendField(line, "collectedTrials", totals[1]);
+		appendField(line, "allocatedBytes", totals[0] == 0 ? 0 : ((double)totals[2])/totals[0]);
+		appendField(line, "allocationRate", allocationRate(totals[2], totals[3]));
+	}
+	
+	
+	/**
+	 * @param bytes Bytes allocated.
+	 * @param nanoseconds Time taken to allocate them.
+	 * @return The rate they were allocated at, in MB/s.
+	 */
+	private double allocationRate(long bytes, long nanoseconds) {
+		// bytes per nanosecond is GB/s
+		return nanoseconds == 0 ? 0 : ((double)bytes)/nanoseconds * 1000;
+	}
+	
+	
+	/**
+	 * @return The names of the count columns to add to a CSV header, or nothing if the operations are not counted.
+	 */
+	private String countHeader() {
+		if (!counted) {
+			return "";
+		}
+		return ", " + String.join(", ", OperationCounts.NAMES);
+	}
+	
+	
+	/**
+	 * Adds one value to a line, as a CSV column or a JSON field.
+	 * 
+	 * @param line The line being written.
+	 * @param name Name of the value.
+	 * @param value The value.
+	 */
+	private void appendField(StringBuilder line, String name, Object value) {
+		if (format == ResultFormat.Csv) {
+			line.append(", ").append(value);
+		}
+		else {
+			line.append(", \"").append(name).append("\": ").append(value);
+		}
+	}
+	
+	
+	/**
+	 * Adds the mean of each operation count of one size to its summary line, if the operations are counted.
+	 * 
+	 * @param line The summary line being written.
+	 * @param size The size the line summarises.
+	 * @param trials The number of trials of that size.
+	 */
+	private void appendCountMeans(StringBuilder line, int size, long trials) {
+		if (!counted) {
+			return;
+		}
+		double[] sums = sizeToCountSums.get(size);
+		for (int i=0; i<OperationCounts.NAMES.length; i++) {
+			appendField(line, OperationCounts.NAMES[i], sums == null ? 0 : sums[i]/trials);
+		}
+	}
+	
+	
+	/**
+	 * @return The file extension for the format.
+	 */
+	private String extension() {
+		return format == ResultFormat.Csv ? ".csv" : ".json";
+	}
+}
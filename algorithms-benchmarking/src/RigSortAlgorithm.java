@@ -0,0 +1,15 @@
+
+/**
+ * A SortAlgorithm whose sorting is done by a method of TestingRig.
+ * 
+ * The algorithm uses the settings of the rig it was given, e.g. its pivot strategy.
+ */
+public abstract class RigSortAlgorithm implements SortAlgorithm {
+	// the rig that holds the sorting method and its settings
+	protected TestingRig rig;
+	
+	@Override
+	public void setRig(TestingRig rig) {
+		this.rig = rig;
+	}
+}
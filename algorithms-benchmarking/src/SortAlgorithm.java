@@ -0,0 +1,45 @@
+
+/**
+ * A sorting algorithm that can be tested by TestingRig and BenchmarkRig.
+ * 
+ * Implementations are found by SortAlgorithmRegistry using a ServiceLoader,
+ * so a new algorithm only needs a class implementing this and a line in META-INF/services/SortAlgorithm.
+ * Implementations need a public constructor with no parameters.
+ */
+public interface SortAlgorithm {
+	
+	/**
+	 * @return The name of the algorithm. This is used to look it up and to name the exported files.
+	 */
+	String name();
+	
+	/**
+	 * Sorts a subarray of integers in place.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	void sort(int[] data, int low, int high, IntComparator comp);
+	
+	/**
+	 * @return True if items that compare as equal keep their original order.
+	 */
+	boolean isStable();
+	
+	/**
+	 * @return How the extra memory the algorithm needs grows with the size of the array.
+	 */
+	AuxiliaryMemory auxiliaryMemory();
+	
+	/**
+	 * Gives the algorithm the rig whose settings (pivot strategy, cutoffs, etc.) it should use.
+	 * 
+	 * The registry calls this once, after creating the algorithm.
+	 * 
+	 * @param rig The rig.
+	 */
+	default void setRig(TestingRig rig) {
+	}
+}
@@ -0,0 +1,55 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.ServiceLoader;
+
+/**
+ * Every SortAlgorithm that the ServiceLoader can find, by name.
+ * 
+ * Each registry creates its own instances of the algorithms, all of which use the settings of one rig.
+ */
+public class SortAlgorithmRegistry implements Iterable<SortAlgorithm> {
+	// kept in the order the ServiceLoader found them, so iterating over the registry is repeatable
+	private LinkedHashMap<String, SortAlgorithm> algorithms = new LinkedHashMap<String, SortAlgorithm>();
+	
+	/**
+	 * @param rig The rig whose settings the algorithms use.
+	 */
+	public SortAlgorithmRegistry(TestingRig rig) {
+		for (SortAlgorithm algorithm : ServiceLoader.load(SortAlgorithm.class)) {
+			algorithm.setRig(rig);
+			algorithms.put(algorithm.name(), algorithm);
+		}
+	}
+	
+	
+	/**
+	 * Finds an algorithm by name.
+	 * 
+	 * @param name The name of the algorithm.
+	 * @return The algorithm.
+	 */
+	public SortAlgorithm get(String name) {
+		SortAlgorithm algorithm = algorithms.get(name);
+		if (algorithm == null) {
+			throw new IllegalArgumentException("no SortAlgorithm named " + name + " is registered");
+		}
+		return algorithm;
+	}
+	
+	
+	/**
+	 * Finds the algorithm with the same name as an Algorithm literal.
+	 * 
+	 * @param algorithm Algorithm literal.
+	 * @return The algorithm.
+	 */
+	public SortAlgorithm get(Algorithm algorithm) {
+		return get(algorithm.name());
+	}
+
+	
+	@Override
+	public Iterator<SortAlgorithm> iterator() {
+		return algorithms.values().iterator();
+	}
+}
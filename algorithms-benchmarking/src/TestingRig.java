@@ -1,15 +1,109 @@
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class TestingRig {
+	// the file the tuned hybridQuickSort settings are saved to, and loaded from when a rig is created
+	public static final String TUNING_FILE = "hybridQuickSort.properties";
+	// number of items blockPartition scans from each end before swapping the misplaced ones
+	protected static final int PARTITION_BLOCK = 64;
+	// the offsets blockPartition writes down, one array per thread so the parallel QuickSorts can partition at the same time
+	private static final ThreadLocal<int[]> PARTITION_OFFSETS = ThreadLocal.withInitial(() -> new int[2*PARTITION_BLOCK]);
+	// subarrays of this many items or fewer are insertion sorted by mergeSort
+	protected static final int MERGE_SORT_CUTOFF = 20;
+	
 	// use the same comparator for all tests
-	protected Comparator<Integer> comparator;
+	protected IntComparator comparator;
+	// subarrays smaller than this are sorted sequentially by the parallel algorithms
+	protected int parallelGranularity = 8192;
+	// the pool the parallel algorithms run on
+	protected ForkJoinPool pool = ForkJoinPool.commonPool();
+	// how partition chooses its pivot
+	protected PivotStrategy pivotStrategy = PivotStrategy.MedianOfThree;
+	// False lets QuickSort recurse as deep as it likes instead of switching to HeapSort
+	protected boolean depthLimited = true;
+	// how hybridQuickSort partitions each subarray
+	protected PartitionScheme partitionScheme = PartitionScheme.Lomuto;
+	// the radix sort keeps its scratch buffer between sorts
+	protected RadixSort radixSort = new RadixSort();
+	// the natural merge sort keeps its scratch buffer between sorts, and extends short runs with this rig's insertionSort
+	protected NaturalMergeSort naturalMergeSort = new NaturalMergeSort(this);
+	// the in-place merge sort merges through its small external buffer when a run fits, and by rotations when it does not
+	protected InPlaceMergeSort inPlaceMergeSort = new InPlaceMergeSort(this);
+	// pattern-defeating QuickSort, which uses this rig's insertionSort, heapSort and swap
+	protected PdqSort pdqSort = new PdqSort(this);
+	// largest key span the adaptive counting sort will use a count table for. 65536 counts fit in L2 cache.
+	protected int maxCountTableSize = 1 << 16;
+	// the count table is kept between sorts so it only needs to be allocated again when a larger span is sorted
+	private int[] countTable = new int[0];
+	// the strategy the last adaptive sort chose, or null if the last sort was not adaptive
+	protected String lastStrategy;
+	// hybridQuickSort insertion sorts subarrays of this many items or fewer
+	protected int insertionSortCutoff = 20;
+	// how hybridQuickSort sorts the subarrays of insertionSortCutoff items or fewer
+	protected LeafSort leafSort = LeafSort.InsertionSort;
+	// every SortAlgorithm found by the ServiceLoader, created the first time it is needed
+	private SortAlgorithmRegistry registry;
+	// seed for the generated arrays, recorded with the results so a run can be repeated exactly
+	protected long seed = System.nanoTime();
+	// generates the arrays that are sorted in the tests
+	protected DataGenerator generator = new DataGenerator(seed);
+	// the primitive-specialised sorts for the other key types
+	protected LongSort longSort = new LongSort(this);
+	protected DoubleSort doubleSort = new DoubleSort(this);
+	protected RecordSort recordSort = new RecordSort(this);
+	// how testSort streams the time of every trial
+	protected ResultFormat resultFormat = ResultFormat.Csv;
+	// True makes testSort count the operations of every trial on an OperationCountingRig, as well as timing it
+	protected boolean countOperations;
+	// measures the memory allocated and the garbage collections during every trial of testSort
+	protected MemoryMonitor memoryMonitor = new MemoryMonitor();
+	// True leaves the trials that had a garbage collection out of the averages, as the pause is timed along with the sort
+	protected boolean excludeCollectedTrials;
 	
 	public TestingRig() {
-		comparator = new LessThanComparator();
+		comparator = new LessThanIntComparator();
+		// use the settings HybridQuickSortTuner found on this machine, if it has been run
+		File tuning = new File(TUNING_FILE);
+		if (tuning.exists()) {
+			loadTuning(tuning);
+		}
+	}
+	
+	/**
+	 * Loads the hybridQuickSort settings saved by HybridQuickSortTuner.
+	 * 
+	 * @param file The file the settings were saved to.
+	 */
+	public void loadTuning(File file) {
+		try (FileInputStream input = new FileInputStream(file)) {
+			Properties tuning = new Properties();
+			tuning.load(input);
+			insertionSortCutoff = Integer.parseInt(tuning.getProperty("insertionSortCutoff", "" + insertionSortCutoff));
+			pivotStrategy = PivotStrategy.valueOf(tuning.getProperty("pivotStrategy", pivotStrategy.name()));
+		}
+		catch (IOException | IllegalArgumentException error) {
+			System.out.println("error: " + error);
+		}
+	}
+	
+	/**
+	 * Gets the registry of every SortAlgorithm, all of which use this rig's settings.
+	 * 
+	 * @return The registry.
+	 */
+	public SortAlgorithmRegistry getRegistry() {
+		if (registry == null) {
+			registry = new SortAlgorithmRegistry(this);
+		}
+		return registry;
 	}
 	
 	/**
@@ -22,6 +116,122 @@ public class TestingRig {
 		return x * x;
 	}
 	
+	/**
+	 * Sets the seed for the generated arrays, so a previous run can be repeated exactly.
+	 * 
+	 * @param seed The seed recorded in the output of the previous run.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		generator = new DataGenerator(seed);
+	}
+	
+	/**
+	 * Gets the generator used for the generated arrays, e.g. to change how many swaps a NearlySorted array has.
+	 * 
+	 * @return The generator.
+	 */
+	public DataGenerator getGenerator() {
+		return generator;
+	}
+	
+	/**
+	 * Sets the size below which the parallel algorithms stop splitting the array into tasks.
+	 * 
+	 * @param parallelGranularity Subarrays smaller than this are sorted sequentially.
+	 */
+	public void setParallelGranularity(int parallelGranularity) {
+		this.parallelGranularity = parallelGranularity;
+	}
+	
+	/**
+	 * Sets how partition chooses its pivot.
+	 * 
+	 * @param pivotStrategy The pivot strategy. First is the original behaviour.
+	 */
+	public void setPivotStrategy(PivotStrategy pivotStrategy) {
+		this.pivotStrategy = pivotStrategy;
+	}
+	
+	/**
+	 * Sets whether QuickSort switches to HeapSort when its recursion gets too deep.
+	 * 
+	 * @param depthLimited False for the original behaviour, which can overflow the stack on sorted input.
+	 */
+	public void setDepthLimited(boolean depthLimited) {
+		this.depthLimited = depthLimited;
+	}
+	
+	/**
+	 * Sets how hybridQuickSort partitions each subarray.
+	 * 
+	 * Block also changes the partition of quickSort and the parallel QuickSorts, as it gives the same result as Lomuto.
+	 * 
+	 * @param partitionScheme The partition scheme. Lomuto is the original behaviour.
+	 */
+	public void setPartitionScheme(PartitionScheme partitionScheme) {
+		this.partitionScheme = partitionScheme;
+	}
+	
+	/**
+	 * Sets the size of subarray hybridQuickSort hands over to insertion sort.
+	 * 
+	 * @param insertionSortCutoff Subarrays of this many items or fewer are insertion sorted. 20 is the original behaviour.
+	 */
+	public void setInsertionSortCutoff(int insertionSortCutoff) {
+		this.insertionSortCutoff = insertionSortCutoff;
+	}
+	
+	/**
+	 * Sets how hybridQuickSort sorts the subarrays of insertionSortCutoff items or fewer.
+	 * 
+	 * @param leafSort The leaf sort. InsertionSort is the original behaviour.
+	 */
+	public void setLeafSort(LeafSort leafSort) {
+		this.leafSort = leafSort;
+	}
+	
+	/**
+	 * Sets how testSort streams the time of every trial and the summary of each size.
+	 * 
+	 * @param resultFormat Csv or Json.
+	 */
+	public void setResultFormat(ResultFormat resultFormat) {
+		this.resultFormat = resultFormat;
+	}
+
+	/**
+	 * Sets whether testSort counts the comparisons, swaps, moves, recursion depth and partition imbalance of every trial.
+	 * 
+	 * The counts are written to the result files next to the times. Each array is sorted again to be counted,
+	 * so the times are not affected, but the tests take longer.
+	 * 
+	 * @param countOperations True to count the operations, False to only time the sorts.
+	 */
+	public void setCountOperations(boolean countOperations) {
+		this.countOperations = countOperations;
+	}
+
+	/**
+	 * Sets whether testSort leaves the trials that had a garbage collection out of the averages and summaries.
+	 * 
+	 * Every trial is still written to the trials file, with the collections that ran during it.
+	 * 
+	 * @param excludeCollectedTrials True to leave them out, False to keep them.
+	 */
+	public void setExcludeCollectedTrials(boolean excludeCollectedTrials) {
+		this.excludeCollectedTrials = excludeCollectedTrials;
+	}
+
+	/**
+	 * Sets the size of the external buffer inPlaceMergeSort merges through when the shorter run fits in it.
+	 * 
+	 * @param bufferSize Number of items in the buffer. 0 is the original behaviour, sorting with O(1) extra memory.
+	 */
+	public void setInPlaceMergeBufferSize(int bufferSize) {
+		inPlaceMergeSort.setBufferSize(bufferSize);
+	}
+
 	/**
 	 * Prints the sizes, averages, and standard deviations of a test to a text file.
 	 * 
@@ -30,6 +240,22 @@ public class TestingRig {
 	 * @param fileName Name of the text file.
 	 */
 	public void printOutput(HashMap<Integer, Double> sizeToAvgTime, HashMap<Integer, Double> sizeToDeviation, String fileName) {
+		printOutput(sizeToAvgTime, sizeToDeviation, new HashMap<Integer, String>(), null, fileName);
+	}
+	
+	/**
+	 * Prints the sizes, averages, standard deviations, and adaptive strategies of a test to a text file.
+	 * 
+	 * The strategies are only printed, as a fourth line, if an adaptive algorithm was tested.
+	 * The description of the test (e.g. its distribution and seed) is printed as the last line.
+	 * 
+	 * @param sizeToAvgTime Hashmap of sizes to their average time.
+	 * @param sizeToDeviation Hashmap of sizes to their standard deviation.
+	 * @param sizeToStrategy Hashmap of sizes to the strategy an adaptive algorithm chose for them.
+	 * @param testInfo Description of the test, or null to leave it out.
+	 * @param fileName Name of the text file.
+	 */
+	public void printOutput(HashMap<Integer, Double> sizeToAvgTime, HashMap<Integer, Double> sizeToDeviation, HashMap<Integer, String> sizeToStrategy, String testInfo, String fileName) {
 		try {
 			File file = new File(fileName + "Output");
 			file.createNewFile();
@@ -38,27 +264,32 @@ public class TestingRig {
 			// each line holds one type of data
 			// The order of each line should be the same.
 			// i.e. if size1 is first in its line, then its average should be first in the average line, and its deviation first in that line.
-			// this makes it easy to copy/paste into python code for plotting
-			String sizeLine = "";
-			String avgTimeLine = "";
-			String deviationLine = "";
+			// this makes it easy to copy/paste into python code for plotting.
+			// Pass LinkedHashMaps to keep the sizes in the order they were tested.
+			StringBuilder sizeLine = new StringBuilder();
+			StringBuilder avgTimeLine = new StringBuilder();
+			StringBuilder deviationLine = new StringBuilder();
+			StringBuilder strategyLine = new StringBuilder();
 			
-			// need to build each line one size at a time
+			// need to build each line one size at a time, with ", " between the items
 			for (int size : sizeToAvgTime.keySet()) {
-				sizeLine += size + ", ";
-				avgTimeLine += sizeToAvgTime.get(size) + ", ";
-				deviationLine += sizeToDeviation.get(size) + ", ";
+				String separator = sizeLine.length() == 0 ? "" : ", ";
+				sizeLine.append(separator).append(size);
+				avgTimeLine.append(separator).append(sizeToAvgTime.get(size));
+				deviationLine.append(separator).append(sizeToDeviation.get(size));
+				strategyLine.append(separator).append(sizeToStrategy.get(size));
 			}
 			
-			// need to remove the ", " at the end
-			sizeLine = sizeLine.substring(0, sizeLine.length()-2);
-			avgTimeLine = avgTimeLine.substring(0, avgTimeLine.length()-2);
-			deviationLine = deviationLine.substring(0, deviationLine.length()-2);
-			
 			// now print the lines
 			print.println(sizeLine);
 			print.println(avgTimeLine);
 			print.println(deviationLine);
+			if (!sizeToStrategy.isEmpty()) {
+				print.println(strategyLine);
+			}
+			if (testInfo != null) {
+				print.println(testInfo);
+			}
 			print.close();
 		}
 		catch (IOException error) {
@@ -78,117 +309,281 @@ public class TestingRig {
 	 * @param numTests The number of tests that will be run for each array size.
 	 * @param filePath The filepath for the exported test file.
 	 * @param fileSuffix A suffix to be added to the end of the name of the export file
-	 * @param algorithm Algorithm literal. The algorithm you wish to test.
+	 * @param algorithm Algorithm literal. The algorithm you wish to test. It is looked up in the registry by name.
 	 */
 	public void testSort(int[] sizes, int maxRange, int numTests, String filePath, String fileSuffix, Algorithm algorithm) {
+		testSort(sizes, maxRange, numTests, filePath, fileSuffix, getRegistry().get(algorithm));
+	}
+	
+	
+	/** Tests the efficiency of a sorting algorithm at solving array of a given size.
+	 * 
+	 * This tests how quickly the algorithm randomly generated arrays of a given size and calculates the average time for each size.
+	 * It also calculates the standard deviation of the times to sort, as an indicator of how accurate the average times are.
+	 * These are then exported to a text file.
+	 * 
+	 * @param sizes An array of the sizes of lists that are going to be tested.
+	 * @param maxRange The maximum spread of values within the randomly generated lists. Values within a list will be between 0 and maxRange (inclusive).
+	 * @param numTests The number of tests that will be run for each array size.
+	 * @param filePath The filepath for the exported test file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file
+	 * @param algorithm The algorithm you wish to test.
+	 */
+	public void testSort(int[] sizes, int maxRange, int numTests, String filePath, String fileSuffix, SortAlgorithm algorithm) {
+		testSort(sizes, maxRange, numTests, filePath, fileSuffix, algorithm, Distribution.Uniform);
+	}
+	
+	
+	/** Tests the efficiency of a sorting algorithm at solving arrays of a given size and shape.
+	 * 
+	 * The arrays are generated from the rig's seed, which is restarted at the beginning of the test.
+	 * So every algorithm tested with the same seed sorts exactly the same arrays.
+	 * The distribution and seed are recorded in the exported file, along with the insertion sort cutoff and pivot strategy,
+	 * which may have been loaded from the tuning file.
+	 * 
+	 * @param sizes An array of the sizes of lists that are going to be tested.
+	 * @param maxRange The maximum spread of values within the randomly generated lists. Values within a list will be between 0 and maxRange (inclusive).
+	 * @param numTests The number of tests that will be run for each array size.
+	 * @param filePath The filepath for the exported test file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file
+	 * @param algorithm The algorithm you wish to test.
+	 * @param distribution The shape of the generated arrays.
+	 */
+	public void testSort(int[] sizes, int maxRange, int numTests, String filePath, String fileSuffix, SortAlgorithm algorithm, Distribution distribution) {
+		generator.reset();
+		
 		// save the averages and standard deviations to hashmaps for easy referencing.
-		HashMap<Integer, Double> sizeToAvgTime = new HashMap<Integer, Double>();
-		HashMap<Integer, Double> sizeToDeviation = new HashMap<Integer, Double>();
+		// Linked, so the sizes are printed in the order they were tested.
+		LinkedHashMap<Integer, Double> sizeToAvgTime = new LinkedHashMap<Integer, Double>();
+		LinkedHashMap<Integer, Double> sizeToDeviation = new LinkedHashMap<Integer, Double>();
+		// only filled in by the adaptive algorithms
+		LinkedHashMap<Integer, String> sizeToStrategy = new LinkedHashMap<Integer, String>();
 		
-		// do all tests for one size, before moving onto the next size.
-		// This is done to minimise the number of sums, averages, and standard deviations that need to be kept track of.
-		for (int size : sizes) {
-			System.out.println(size + ":");
-			
-			// the sum is used to calculate the average
-			double sum = 0;
-			// store the individual times in an array so we can use them to calculate the standard deviation
-			// the standard deviation cannot be calculated until we have already calculated the average.
-			double[] timesTaken = new double[numTests];
-			
-			for (int test=0; test<numTests; test++) {
-				System.out.println("test " + test);
-				
-				// the array is randomly generated for each test.
-				// The impact of any individual array is minimised by running multiple tests.
-				int[] dataset = generateData(size, maxRange);
-				
-				// the time is stored in ms. 
-				// This is because the tests are usually done on lists that take longer than 1ms to solve.
-				// Often significantly longer.
-				long startTime = System.nanoTime();
-				long timeTaken = System.nanoTime() - startTime;
-				// start time and time  initialised before switch statement, so compiler will believe that it will be initialised
-				// real values that are used are calculated inside the switch statement so time taken in the switch statement
-				// will not be counted against the time the algorithm takes
-				switch (algorithm) {
-				case QuickSort:
-					startTime = System.nanoTime();
-					quickSort(dataset, comparator);
-					timeTaken = System.nanoTime() - startTime;
-					break;
-				case InsertionSort:
-					startTime = System.nanoTime();
-					insertionSort(dataset, comparator);
-					timeTaken = System.nanoTime() - startTime;
-					break;
-				case BubbleSort:
-					startTime = System.nanoTime();
-					bubbleSort(dataset, comparator);
-					timeTaken = System.nanoTime() - startTime;
-					break;
-				case HybridQuickSort:
-					startTime = System.nanoTime();
-					hybridQuickSort(dataset, comparator);
-					timeTaken = System.nanoTime() - startTime;
-					break;
-				}
-				
+		// name of file determined by the algorithm
+		String fileName = filePath + algorithm.name() + fileSuffix;
+		
+		// sorts a copy of each array again to count its operations, without slowing down the timed sort
+		OperationCountingRig countingRig = countOperations ? new OperationCountingRig(this) : null;
+		
+		// filled in from the sink before it is closed
+		String memoryInfo = "";
+		
+		// every trial is streamed to the sink as it finishes, so no times are kept in memory
+		try (ResultSink sink = new ResultSink(fileName, resultFormat, countOperations)) {
+			sink.setExcludeCollected(excludeCollectedTrials);
+			sink.setSettings(insertionSortCutoff, pivotStrategy);
+			// do all tests for one size, before moving onto the next size.
+			for (int size : sizes) {
+				System.out.println(size + ":");
 				
-				// The algorithms should sort the set.
-				// In the case that it doesn't this will warn us.
-				if (!isSorted(dataset, comparator)) {
-					for (int i=0; i<5; i++) {
-						System.out.println("ERROR!");
+				for (int test=0; test<numTests; test++) {
+					System.out.println("test " + test);
+					
+					// the array is randomly generated for each test.
+					// The impact of any individual array is minimised by running multiple tests.
+					int[] dataset = generateData(size, maxRange, distribution);
+					int[] copy = countOperations ? dataset.clone() : null;
+					
+					lastStrategy = null;
+					memoryMonitor.start();
+					long startTime = System.nanoTime();
+					algorithm.sort(dataset, 0, dataset.length-1, comparator);
+					long timeTaken = System.nanoTime() - startTime;
+					TrialMemory memory = memoryMonitor.stop();
+					
+					// The algorithms should sort the set.
+					// In the case that it doesn't this will warn us.
+					if (!isSorted(dataset, comparator)) {
+						for (int i=0; i<5; i++) {
+							System.out.println("ERROR!");
+						}
+						return;
+					}
+					
+					// the adaptive algorithms can choose a different strategy for each test of the same size
+					if (lastStrategy != null) {
+						String previous = sizeToStrategy.get(size);
+						sizeToStrategy.put(size, previous == null || previous.equals(lastStrategy) ? lastStrategy : "Mixed");
+					}
+					
+					OperationCounts counts = null;
+					if (countOperations) {
+						counts = countingRig.count(algorithm, copy, 0, copy.length-1, comparator);
 					}
-					return;
+					
+					sink.record(algorithm.name(), size, distribution.name(), generator.getSeed(), test, timeTaken, memory, counts);
 				}
 				
-				// start time needs be cast from long to double, so we don't get integer division.
-				double timeTakenMs = ((double)timeTaken)/1000000;
-				sum += timeTakenMs;
-				timesTaken[test] = timeTakenMs;
-			}
-			
-			// calculate the average and add it to the hashMap.
-			// need to cast the sum to double to get normal division.
-			double avg = sum/numTests;
-			sizeToAvgTime.put(size, avg);
-			
-			// calculate the standard deviation
-			double deviation = 0;
-			for (int i=0; i<numTests; i++) {
-				deviation += square(timesTaken[i] - avg);
+				// the output file is in ms. 
+				// This is because the tests are usually done on lists that take longer than 1ms to solve.
+				LatencyHistogram histogram = sink.getHistogram(size);
+				sizeToAvgTime.put(size, histogram.getMean()/1000000);
+				sizeToDeviation.put(size, histogram.getStandardDeviation()/1000000);
 			}
-			deviation = deviation/numTests;
-			deviation = Math.sqrt(deviation);
-			sizeToDeviation.put(size, deviation);
+			memoryInfo = memoryInfo(sink);
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
 		}
-		
-		// name of file determined by the algorithm
-		String fileName = filePath;
-		switch (algorithm) {
-		case QuickSort:
-			fileName += "QuickSort";
-			break;
-		case InsertionSort:
-			fileName += "InsertionSort";
-			break;
-		case BubbleSort:
-			fileName += "BubbleSort";
-			break;
-		case HybridQuickSort:
-			fileName += "HybridQuickSort";
-			break;
-		}
-		fileName += fileSuffix;
 		
 		// print the results to a text file
-		printOutput(sizeToAvgTime, sizeToDeviation, fileName);
+		printOutput(sizeToAvgTime, sizeToDeviation, sizeToStrategy, "distribution: " + distribution + ", seed: " + generator.getSeed() + settingsInfo() + memoryInfo, fileName);
+	}
+	
+	
+	/** Tests the efficiency of a sorting algorithm at solving arrays of a given size, shape and key type.
+	 * 
+	 * Int keys are tested the same as the other testSort methods.
+	 * Long and Double keys are sorted by the primitive-specialised QuickSort, HybridQuickSort or InsertionSort.
+	 * Record keys sort TimestampedValue records by their timestamp with RecordSort, whatever the algorithm.
+	 * The name of the exported file has the key type after the algorithm, except for Int keys.
+	 * 
+	 * @param sizes An array of the sizes of lists that are going to be tested.
+	 * @param maxRange The number of different values (minus one) within the generated lists.
+	 * @param numTests The number of tests that will be run for each array size.
+	 * @param filePath The filepath for the exported test file.
+	 * @param fileSuffix A suffix to be added to the end of the name of the export file
+	 * @param algorithm Algorithm literal. The algorithm you wish to test.
+	 * @param distribution The shape of the generated arrays.
+	 * @param keyType The type of key that is sorted.
+	 */
+	public void testSort(int[] sizes, int maxRange, int numTests, String filePath, String fileSuffix, Algorithm algorithm, Distribution distribution, KeyType keyType) {
+		if (keyType == KeyType.Int) {
+			testSort(sizes, maxRange, numTests, filePath, fileSuffix, getRegistry().get(algorithm), distribution);
+			return;
+		}
+		generator.reset();
+		
+		LinkedHashMap<Integer, Double> sizeToAvgTime = new LinkedHashMap<Integer, Double>();
+		LinkedHashMap<Integer, Double> sizeToDeviation = new LinkedHashMap<Integer, Double>();
+		String fileName = filePath + algorithm + keyType + fileSuffix;
+		
+		String memoryInfo = "";
+		
+		try (ResultSink sink = new ResultSink(fileName, resultFormat)) {
+			sink.setExcludeCollected(excludeCollectedTrials);
+			sink.setSettings(insertionSortCutoff, pivotStrategy);
+			for (int size : sizes) {
+				System.out.println(size + ":");
+				for (int test=0; test<numTests; test++) {
+					System.out.println("test " + test);
+					long timeTaken = timeSort(size, maxRange, algorithm, distribution, keyType);
+					if (timeTaken < 0) {
+						for (int i=0; i<5; i++) {
+							System.out.println("ERROR!");
+						}
+						return;
+					}
+					sink.record(algorithm + "" + keyType, size, distribution.name(), generator.getSeed(), test, timeTaken, memoryMonitor.getLast(), null);
+				}
+				LatencyHistogram histogram = sink.getHistogram(size);
+				sizeToAvgTime.put(size, histogram.getMean()/1000000);
+				sizeToDeviation.put(size, histogram.getStandardDeviation()/1000000);
+			}
+			memoryInfo = memoryInfo(sink);
+		}
+		catch (IOException error) {
+			System.out.println("error: " + error);
+		}
+		
+		printOutput(sizeToAvgTime, sizeToDeviation, new LinkedHashMap<Integer, String>(), "distribution: " + distribution + ", seed: " + generator.getSeed() + settingsInfo() + ", keys: " + keyType + memoryInfo, fileName);
+	}
+	
+	
+	/**
+	 * Generates one array of the given key type, and times how long it takes to sort.
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange The number of different values (minus one) within the generated array.
+	 * @param algorithm QuickSort, HybridQuickSort or InsertionSort. Ignored for Record keys.
+	 * @param distribution The shape of the generated array.
+	 * @param keyType Long, Double or Record.
+	 * @return The time taken in nanoseconds, or -1 if the array was not sorted. The memory it took is left in memoryMonitor.
+	 */
+	private long timeSort(int size, int maxRange, Algorithm algorithm, Distribution distribution, KeyType keyType) {
+		long startTime;
+		switch (keyType) {
+		case Long:
+			long[] longs = generateLongData(size, maxRange, distribution);
+			memoryMonitor.start();
+			startTime = System.nanoTime();
+			switch (algorithm) {
+			case QuickSort:
+				longSort.quickSort(longs);
+				break;
+			case HybridQuickSort:
+				longSort.hybridQuickSort(longs);
+				break;
+			case InsertionSort:
+				longSort.insertionSort(longs);
+				break;
+			default:
+				throw new IllegalArgumentException(algorithm + " has no long[] version");
+			}
+			long longTime = System.nanoTime() - startTime;
+			memoryMonitor.stop();
+			return longSort.isSorted(longs) ? longTime : -1;
+		case Double:
+			double[] doubles = generateDoubleData(size, maxRange, distribution);
+			memoryMonitor.start();
+			startTime = System.nanoTime();
+			switch (algorithm) {
+			case QuickSort:
+				doubleSort.quickSort(doubles);
+				break;
+			case HybridQuickSort:
+				doubleSort.hybridQuickSort(doubles);
+				break;
+			case InsertionSort:
+				doubleSort.insertionSort(doubles);
+				break;
+			default:
+				throw new IllegalArgumentException(algorithm + " has no double[] version");
+			}
+			long doubleTime = System.nanoTime() - startTime;
+			memoryMonitor.stop();
+			return doubleSort.isSorted(doubles) ? doubleTime : -1;
+		default:
+			TimestampedValue[] records = generateRecords(size, maxRange, distribution);
+			memoryMonitor.start();
+			startTime = System.nanoTime();
+			recordSort.sortByLongKey(records, TimestampedValue::timestamp);
+			long recordTime = System.nanoTime() - startTime;
+			memoryMonitor.stop();
+			// records with equal timestamps should still be in their original order
+			boolean sorted = true;
+			for (int i=1; i<records.length; i++) {
+				TimestampedValue previous = records[i-1];
+				if (records[i].timestamp() < previous.timestamp()
+						|| (records[i].timestamp() == previous.timestamp() && records[i].value() < previous.value())) {
+					sorted = false;
+				}
+			}
+			return sorted ? recordTime : -1;
+		}
 	}
 	
 	
+	/**
+	 * Describes the hybridQuickSort settings a test ran with, for the last line of its output file.
+	 * 
+	 * @return The insertion sort cutoff and pivot strategy, starting with ", ".
+	 */
+	private String settingsInfo() {
+		return ", insertionSortCutoff: " + insertionSortCutoff + ", pivotStrategy: " + pivotStrategy;
+	}
+	
 	
+	/**
+	 * Describes the memory a test allocated, for the last line of its output file.
+	 * 
+	 * @param sink The sink the trials of the test were recorded in.
+	 * @return The allocation rate and the number of trials with a garbage collection, starting with ", ".
+	 */
+	private String memoryInfo(ResultSink sink) {
+		return ", allocation: " + sink.getAllocationRate() + " MB/s, trials with a GC: " + sink.getCollectedTrials()
+				+ (excludeCollectedTrials ? " (excluded)" : "");
+	}
 	
 	
 	/** 
@@ -202,15 +597,83 @@ public class TestingRig {
 	 * @return A randomly generated array of integers.
 	 */
 	public int[] generateData(int size, int maxRange) {
-		int[] dataset = new int[size];
+		return generator.generate(size, maxRange, Distribution.Uniform);
+	}
+
+
+	/**
+	 * Generates an array of integers with a given shape.
+	 * 
+	 * Each element in the array is between 0 and maxRange.
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange Maximum value of an integer in the array.
+	 * @param distribution The shape of the generated array.
+	 * @return A generated array of integers.
+	 */
+	public int[] generateData(int size, int maxRange, Distribution distribution) {
+		return generator.generate(size, maxRange, distribution);
+	}
+
+
+	/**
+	 * Generates an array of longs with a given shape, spread over the positive longs.
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange The number of different values (minus one) in the array.
+	 * @param distribution The shape of the generated array.
+	 * @return A generated array of longs.
+	 */
+	public long[] generateLongData(int size, int maxRange, Distribution distribution) {
+		return generator.generateLongs(size, maxRange, distribution);
+	}
+
+
+	/**
+	 * Generates an array of doubles with a given shape, between -1 and 1.
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange The number of different values (minus one) in the array.
+	 * @param distribution The shape of the generated array.
+	 * @return A generated array of doubles.
+	 */
+	public double[] generateDoubleData(int size, int maxRange, Distribution distribution) {
+		return generator.generateDoubles(size, maxRange, distribution);
+	}
+
+
+	/**
+	 * Generates an array of records whose timestamps have a given shape.
+	 * 
+	 * The value of each record is its original index, so the order of records with equal timestamps can be checked.
+	 * 
+	 * @param size Size of the array to be generated.
+	 * @param maxRange The number of different timestamps (minus one) in the array.
+	 * @param distribution The shape of the timestamps.
+	 * @return A generated array of records.
+	 */
+	public TimestampedValue[] generateRecords(int size, int maxRange, Distribution distribution) {
+		long[] timestamps = generator.generateLongs(size, maxRange, distribution);
+		TimestampedValue[] records = new TimestampedValue[size];
 		for (int i=0; i<size; i++) {
-			// due to integer casting need to add 1 to max range to have change of entry with that value.
-			dataset[i] = (int)(Math.random()*(maxRange+1));
+			records[i] = new TimestampedValue(timestamps[i], i);
 		}
-		return dataset;
+		return records;
 	}
 
-	
+
+	/**
+	 * Sorts an array of integers with the given algorithm.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param algorithm Algorithm literal. The algorithm you wish to use.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void sort(int[] data, Algorithm algorithm, IntComparator comp) {
+		getRegistry().get(algorithm).sort(data, 0, data.length-1, comp);
+	}
+
+
 	/**
 	 * BubbleSorts an array of integers.
 	 * 
@@ -223,9 +686,22 @@ public class TestingRig {
 	 * @param data The array you wish to sort.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public void bubbleSort(int[ ] data, Comparator<Integer> comp){
-		for (int pos=data.length-1; pos >= 0; pos--) {
-			for (int scan = 0; scan <= pos -1; scan++) {
+	public void bubbleSort(int[ ] data, IntComparator comp){
+		bubbleSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * BubbleSorts a subarray of integers.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void bubbleSort(int[ ] data, int low, int high, IntComparator comp){
+		for (int pos=high; pos >= low; pos--) {
+			for (int scan = low; scan <= pos -1; scan++) {
 				if (comp.compare(data[scan], data[scan+1]) > 0) {
 					swap(data, scan, scan+1);
 				}
@@ -244,7 +720,7 @@ public class TestingRig {
 	 * @param data The array you wish to sort.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public  void insertionSort(int[] data, Comparator<Integer> comp){
+	public  void insertionSort(int[] data, IntComparator comp){
 		// for each item, from 0, insert into place in the sorted region (0..i-1)
 		for (int i=1; i<data.length; i++){
 			int item = data[i];
@@ -268,12 +744,12 @@ public class TestingRig {
 	 * @param high The largest index of the array in the partition.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public  void insertionSort(int[] data, int low, int high, Comparator<Integer> comp){
+	public  void insertionSort(int[] data, int low, int high, IntComparator comp){
 		// for each item, from low, insert into place in the sorted region (low..i-1)
 		for (int i=low+1; i<=high; i++){
 			int item = data[i];
 			int place = i;
-			while (place > 0  &&  comp.compare(item, data[place-1]) < 0){
+			while (place > low  &&  comp.compare(item, data[place-1]) < 0){
 				data[place] = data[place-1];
 				place--;
 			}
@@ -290,7 +766,7 @@ public class TestingRig {
 	 * @param data The array you wish to sort.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public void hybridQuickSort(int[] data, Comparator<Integer> comp){
+	public void hybridQuickSort(int[] data, IntComparator comp){
 		hybridQuickSort(data, 0, data.length-1, comp);
 	}
 	
@@ -298,11 +774,12 @@ public class TestingRig {
 	/**
 	 * QuickSorts an array or subarray of integers.
 	 * 
-	 * QuickSort treats the first item as the pivot. 
+	 * QuickSort chooses the pivot with pivotStrategy (the median of three by default) and moves it to the front. 
 	 * It places all numbers smaller than the pivot just to the right of the pivot.
 	 * All of the numbers larger than the pivot will be to the right of all of these.
 	 * The pivot then gets switched with the rightmost element that is less than it.
 	 * The sublists to the left and right of the pivot are then solved using quicksort.
+	 * If the recursion goes deeper than depthLimit allows, the sublist is HeapSorted instead.
 	 * 
 	 * NOTE FOR MARKING: This has been slightly changed so now high is included instead of excluded.
 	 * 
@@ -311,90 +788,1024 @@ public class TestingRig {
 	 * @param high The largest index of the array you want to include in the partition.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	private void hybridQuickSort(int[] data, int low, int high, Comparator<Integer> comp){
+	protected void hybridQuickSort(int[] data, int low, int high, IntComparator comp){
+		hybridQuickSort(data, low, high, comp, depthLimit(high - low + 1));
+	}
+	
+	
+	/**
+	 * Hybrid-QuickSorts a subarray of integers, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	protected void hybridQuickSort(int[] data, int low, int high, IntComparator comp, int depth){
 		if (high - low < 1) { 
 			// only one item to sort, so it is already sorted. 
 			return;
 		}
-		else if (high - low < 20) {
-			// 20 or less items to sort, so use insertion sort.
-			insertionSort(data, low, high, comp);
+		else if (high - low < insertionSortCutoff) {
+			// insertionSortCutoff or less items to sort, so use insertion sort or a sorting network.
+			sortLeaf(data, low, high, comp);
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, low, high, comp);
+		}
+		else if (partitionScheme == PartitionScheme.ThreeWay) {
+			// split into three parts, everything between lessEnd and greaterStart is equal to the pivot
+			long bounds = threeWayPartition(data, low, high, comp);
+			int lessEnd = (int)(bounds >>> 32);
+			int greaterStart = (int)bounds;
+			
+			// the items equal to the pivot are already in the correct position, so do not try to sort them again
+			hybridQuickSort(data, low, lessEnd, comp, depth-1);
+			hybridQuickSort(data, greaterStart, high, comp, depth-1);
 		}
 		else {     
 			// split into two parts,  mid = index of boundary
 			int mid = partition(data, low, high, comp);
 			
 			// mid is already in the correct position, so do not try to sort it again
-			hybridQuickSort(data, low, mid-1, comp);
-			hybridQuickSort(data, mid+1, high, comp);
+			hybridQuickSort(data, low, mid-1, comp, depth-1);
+			hybridQuickSort(data, mid+1, high, comp, depth-1);
 		}
 	}
 	
 	
 	/**
-	 * QuickSorts an array of integers.
+	 * Sorts a subarray hybridQuickSort is too small to partition, with the leaf sort.
 	 * 
-	 * QuickSort treats the first item as the pivot. 
-	 * It places all numbers smaller than the pivot just to the right of the pivot.
-	 * All of the numbers larger than the pivot will be to the right of all of these.
-	 * The pivot then gets switched with the rightmost element that is less than it.
-	 * The sublists to the left and right of the pivot are then solved using quicksort.
+	 * Sorting networks are only built for up to SortingNetwork.MAX_SIZE items, so larger subarrays are always insertion sorted.
 	 * 
 	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	public void quickSort(int[] data, Comparator<Integer> comp){
-		quickSort(data, 0, data.length-1, comp);
+	protected void sortLeaf(int[] data, int low, int high, IntComparator comp) {
+		if (leafSort == LeafSort.SortingNetwork && high - low < SortingNetwork.MAX_SIZE) {
+			SortingNetwork.sort(data, low, high, comp);
+		}
+		else {
+			insertionSort(data, low, high, comp);
+		}
+	}
+	
+	
+	/**
+	 * QuickSorts an array of integers.
+	 * 
+	 * QuickSort chooses the pivot with pivotStrategy (the median of three by default) and moves it to the front. 
+	 * It places all numbers smaller than the pivot just to the right of the pivot.
+	 * All of the numbers larger than the pivot will be to the right of all of these.
+	 * The pivot then gets switched with the rightmost element that is less than it.
+	 * The sublists to the left and right of the pivot are then solved using quicksort.
+	 * If the recursion goes deeper than depthLimit allows, the sublist is HeapSorted instead.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void quickSort(int[] data, IntComparator comp){
+		quickSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * QuickSorts an array or subarray of integers.
+	 * 
+	 * QuickSort chooses the pivot with pivotStrategy (the median of three by default) and moves it to the front. 
+	 * It places all numbers smaller than the pivot just to the right of the pivot.
+	 * All of the numbers larger than the pivot will be to the right of all of these.
+	 * The pivot then gets switched with the rightmost element that is less than it.
+	 * The sublists to the left and right of the pivot are then solved using quicksort.
+	 * If the recursion goes deeper than depthLimit allows, the sublist is HeapSorted instead.
+	 * 
+	 * NOTE FOR MARKING: This has been slightly changed so now high is included instead of excluded.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	protected void quickSort(int[] data, int low, int high, IntComparator comp){
+		quickSort(data, low, high, comp, depthLimit(high - low + 1));
+	}
+	
+	
+	/**
+	 * QuickSorts a subarray of integers, switching to HeapSort if the recursion gets too deep.
+	 * 
+	 * Bad pivots (e.g. always using the first item of a sorted array) make QuickSort O(n^2) and recurse n levels deep,
+	 * which overflows the stack for large arrays. Limiting the depth keeps the worst case at O(n log n).
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	protected void quickSort(int[] data, int low, int high, IntComparator comp, int depth){
+		if (high - low < 1) { 
+			// only one item to sort, so it is already sorted. 
+			return;
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, low, high, comp);
+		}
+		else {     
+			// split into two parts,  mid = index of boundary
+			int mid = partition(data, low, high, comp);
+			
+			// mid is already in the correct position, so do not try to sort it again
+			quickSort(data, low, mid-1, comp, depth-1);
+			quickSort(data, mid+1, high, comp, depth-1);
+		}
+	}
+	
+	
+	/**
+	 * QuickSorts an array of integers using three way partitioning.
+	 * 
+	 * Each partition splits the array into the items less than, equal to, and greater than the pivot.
+	 * The items equal to the pivot are in their final position, so arrays with many duplicates are sorted much faster.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void threeWayQuickSort(int[] data, IntComparator comp){
+		threeWayQuickSort(data, 0, data.length-1, comp, depthLimit(data.length));
+	}
+	
+	
+	/**
+	 * QuickSorts a subarray of integers using three way partitioning.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	protected void threeWayQuickSort(int[] data, int low, int high, IntComparator comp, int depth){
+		if (high - low < 1) { 
+			// only one item to sort, so it is already sorted. 
+			return;
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(data, low, high, comp);
+		}
+		else {
+			// split into three parts, everything between lessEnd and greaterStart is equal to the pivot
+			long bounds = threeWayPartition(data, low, high, comp);
+			int lessEnd = (int)(bounds >>> 32);
+			int greaterStart = (int)bounds;
+			
+			// the items equal to the pivot are already in the correct position, so do not try to sort them again
+			threeWayQuickSort(data, low, lessEnd, comp, depth-1);
+			threeWayQuickSort(data, greaterStart, high, comp, depth-1);
+		}
+	}
+	
+	
+	/**
+	 * RadixSorts an array of integers from smallest to largest.
+	 * 
+	 * RadixSort distributes the items by one 8 bit digit at a time instead of comparing them, so it takes linear time.
+	 * It cannot use a comparator, so it only sorts from smallest to largest.
+	 * 
+	 * @param data The array you wish to sort.
+	 */
+	public void radixSort(int[] data) {
+		radixSort.sort(data);
+	}
+	
+	
+	/**
+	 * Sorts an array of integers with a natural merge sort (TimSort), which takes advantage of any order already in the array.
+	 * 
+	 * The array is split into the runs that are already ascending or descending, short runs are extended with insertionSort,
+	 * and the runs are merged. An already sorted array is sorted in linear time. It is stable.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void naturalMergeSort(int[] data, IntComparator comp) {
+		naturalMergeSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * Sorts a subarray of integers with a natural merge sort (TimSort).
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void naturalMergeSort(int[] data, int low, int high, IntComparator comp) {
+		naturalMergeSort.sort(data, low, high, comp);
+	}
+	
+	
+	/**
+	 * MergeSorts an array of integers, using a buffer as long as the array.
+	 * 
+	 * The array is split in half, each half is sorted, and the halves are merged through the buffer.
+	 * Subarrays of MERGE_SORT_CUTOFF items or fewer are insertion sorted. It is stable.
+	 * A new buffer is allocated for every sort, which is the memory inPlaceMergeSort does without.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void mergeSort(int[] data, IntComparator comp) {
+		mergeSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * MergeSorts a subarray of integers, using a buffer as long as the subarray.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void mergeSort(int[] data, int low, int high, IntComparator comp) {
+		if (high - low < 1) {
+			return;
+		}
+		mergeSort(data, new int[high - low + 1], low, high, comp);
+	}
+	
+	
+	/**
+	 * MergeSorts a subarray of integers through a buffer.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param buffer Buffer at least as long as the subarray, holding its items from buffer[0] while they are merged.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void mergeSort(int[] data, int[] buffer, int low, int high, IntComparator comp) {
+		if (high - low < MERGE_SORT_CUTOFF) {
+			insertionSort(data, low, high, comp);
+			return;
+		}
+		int mid = low + (high - low) / 2;
+		mergeSort(data, buffer, low, mid, comp);
+		mergeSort(data, buffer, mid+1, high, comp);
+		if (comp.compare(data[mid], data[mid+1]) <= 0) {
+			// the halves are already in order
+			return;
+		}
+		int length = high - low + 1;
+		System.arraycopy(data, low, buffer, 0, length);
+		int i = 0;
+		int j = mid + 1 - low;
+		int dest = low;
+		while (i <= mid - low && j < length) {
+			// take from the right half only if it is strictly smaller, so equal items keep their order
+			if (comp.compare(buffer[j], buffer[i]) < 0) {
+				data[dest++] = buffer[j++];
+			}
+			else {
+				data[dest++] = buffer[i++];
+			}
+		}
+		// anything left in the right half is already in place
+		System.arraycopy(buffer, i, data, dest, mid - low + 1 - i);
+	}
+	
+	
+	/**
+	 * Sorts an array of integers with a stable merge sort that needs no buffer proportional to the array.
+	 * 
+	 * Blocks of the array are insertion sorted, then merged in place by rotating the items between them,
+	 * which takes O(n log^2 n) swaps instead of the O(n log n) moves of mergeSort, but only O(log n) extra memory.
+	 * If a buffer has been given with setInPlaceMergeBufferSize, merges whose shorter run fits in it go through the buffer instead.
+	 * It is stable.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void inPlaceMergeSort(int[] data, IntComparator comp) {
+		inPlaceMergeSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * Sorts a subarray of integers with a stable in-place merge sort.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void inPlaceMergeSort(int[] data, int low, int high, IntComparator comp) {
+		inPlaceMergeSort.sort(data, low, high, comp);
+	}
+	
+	
+	/**
+	 * Sorts an array of integers with pattern-defeating QuickSort (pdqsort).
+	 * 
+	 * It is a QuickSort with a median of three or ninther pivot, an insertion sort for small subarrays and a HeapSort fallback,
+	 * like hybridQuickSort, but it also notices patterns in the array. Subarrays a partition finds already in order
+	 * are finished with a partial insertion sort, runs of duplicates are split off and never looked at again,
+	 * and unbalanced partitions shuffle a few items to break up the pattern that caused them.
+	 * Sorted, reversed and all equal arrays take linear time. It is not stable.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void pdqSort(int[] data, IntComparator comp) {
+		pdqSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * Sorts a subarray of integers with pattern-defeating QuickSort (pdqsort).
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void pdqSort(int[] data, int low, int high, IntComparator comp) {
+		pdqSort.sort(data, low, high, comp);
+	}
+	
+	
+	/**
+	 * Sorts an array of integers with CountingSort if the range of values is small enough, otherwise Hybrid-QuickSorts it.
+	 * 
+	 * The smallest and largest values are found first. If the span between them fits in the count table
+	 * and is no larger than the array, CountingSort sorts it in linear time.
+	 * CountingSort can only be used with the LessThanIntComparator and GreaterThanIntComparator orderings.
+	 * The chosen strategy is saved in lastStrategy.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void adaptiveCountingSort(int[] data, IntComparator comp) {
+		adaptiveCountingSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * Sorts a subarray of integers with CountingSort if the range of values is small enough, otherwise Hybrid-QuickSorts it.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void adaptiveCountingSort(int[] data, int low, int high, IntComparator comp) {
+		// look through a CountingIntComparator, so counting the operations does not change the strategy chosen
+		IntComparator order = comp instanceof CountingIntComparator ? ((CountingIntComparator)comp).getComparator() : comp;
+		boolean ascending = order instanceof LessThanIntComparator;
+		boolean descending = order instanceof GreaterThanIntComparator;
+		if (high - low >= 1 && (ascending || descending)) {
+			int min = data[low];
+			int max = data[low];
+			for (int i=low; i<=high; i++) {
+				min = Math.min(min, data[i]);
+				max = Math.max(max, data[i]);
+			}
+			// long, as the span of two integers far apart overflows an int
+			long span = (long)max - min + 1;
+			if (span <= maxCountTableSize && span <= high - low + 1) {
+				lastStrategy = "CountingSort";
+				countingSort(data, low, high, min, (int)span, descending);
+				return;
+			}
+		}
+		lastStrategy = "HybridQuickSort";
+		hybridQuickSort(data, low, high, comp);
+	}
+	
+	
+	/**
+	 * CountingSorts a subarray of integers.
+	 * 
+	 * Counts how many times each value appears, then writes each value back out that many times.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param min The smallest value in the subarray.
+	 * @param span The number of values between the smallest and largest value, inclusive.
+	 * @param descending True to sort from largest to smallest, False to sort from smallest to largest.
+	 */
+	public void countingSort(int[] data, int low, int high, int min, int span, boolean descending) {
+		if (countTable.length < span) {
+			countTable = new int[span];
+		}
+		for (int i=low; i<=high; i++) {
+			countTable[data[i] - min]++;
+		}
+		
+		int next = low;
+		for (int i=0; i<span; i++) {
+			int offset = descending ? span-1-i : i;
+			int count = countTable[offset];
+			Arrays.fill(data, next, next + count, min + offset);
+			next += count;
+			// clear the count as we go, so the table is ready for the next sort
+			countTable[offset] = 0;
+		}
+	}
+	
+	
+	/**
+	 * Calculates how deep QuickSort may recurse before it switches to HeapSort.
+	 * 
+	 * Good pivots give a depth of about log2(size), so twice that only happens when the pivots are bad.
+	 * 
+	 * @param size The number of items that will be sorted.
+	 * @return The maximum recursion depth, or Integer.MAX_VALUE if the depth is not limited.
+	 */
+	public int depthLimit(int size) {
+		if (!depthLimited) {
+			return Integer.MAX_VALUE;
+		}
+		// 31 - numberOfLeadingZeros is log2 rounded down
+		return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, size)));
+	}
+	
+	
+	/**
+	 * HeapSorts a subarray of integers.
+	 * 
+	 * HeapSort turns the subarray into a max heap, then repeatedly swaps the largest item to the end and restores the heap.
+	 * It is slower than QuickSort on average, but never worse than O(n log n), so QuickSort falls back to it.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to include.
+	 * @param high The largest index of the array you want to include.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void heapSort(int[] data, int low, int high, IntComparator comp) {
+		int size = high - low + 1;
+		// build the heap, starting from the last item that has children
+		for (int i=size/2 - 1; i>=0; i--) {
+			siftDown(data, low, i, size, comp);
+		}
+		// move the largest item to the end of the heap, then shrink the heap
+		for (int end=size-1; end>0; end--) {
+			swap(data, low, low+end);
+			siftDown(data, low, 0, end, comp);
+		}
+	}
+	
+	
+	/**
+	 * Moves an item down a max heap until it is larger than both of its children.
+	 * 
+	 * @param data Array holding the heap.
+	 * @param offset Index of the root of the heap in the array.
+	 * @param index Position in the heap of the item to be moved.
+	 * @param size Number of items in the heap.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void siftDown(int[] data, int offset, int index, int size, IntComparator comp) {
+		int item = data[offset+index];
+		while (2*index + 1 < size) {
+			int child = 2*index + 1;
+			// use the larger of the two children
+			if (child+1 < size && comp.compare(data[offset+child+1], data[offset+child]) > 0) {
+				child++;
+			}
+			if (comp.compare(data[offset+child], item) <= 0) {
+				break;
+			}
+			data[offset+index] = data[offset+child];
+			index = child;
+		}
+		data[offset+index] = item;
+	}
+	
+	
+	/**
+	 * Finds the order that would sort an array of integers, without moving them.
+	 * 
+	 * The result holds the indexes of the keys in sorted order, so keys[result[0]] is the smallest key.
+	 * The indexes are Hybrid-QuickSorted by comparing the keys they point at, so the only array allocated is the result.
+	 * Indexes of equal keys can end up in any order.
+	 * 
+	 * @param keys The array you wish to find the order of. It is not changed.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The indexes of the keys in sorted order.
+	 */
+	public int[] argsort(int[] keys, IntComparator comp) {
+		int[] indexes = identity(keys.length);
+		IntComparator byKey = (index1, index2) -> comp.compare(keys[index1], keys[index2]);
+		hybridQuickSort(indexes, byKey);
+		return indexes;
+	}
+	
+	
+	/**
+	 * Finds the order that would sort an array of integers, without moving them, keeping equal keys in their original order.
+	 * 
+	 * Ties are broken by comparing the indexes themselves, which makes the unstable QuickSort stable.
+	 * 
+	 * @param keys The array you wish to find the order of. It is not changed.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The indexes of the keys in sorted order, with the indexes of equal keys in increasing order.
+	 */
+	public int[] stableArgsort(int[] keys, IntComparator comp) {
+		int[] indexes = identity(keys.length);
+		IntComparator byKeyThenIndex = (index1, index2) -> {
+			int compared = comp.compare(keys[index1], keys[index2]);
+			return compared != 0 ? compared : Integer.compare(index1, index2);
+		};
+		hybridQuickSort(indexes, byKeyThenIndex);
+		return indexes;
+	}
+	
+	
+	/**
+	 * Hybrid-QuickSorts an array of integers, moving each value to the same place as its key.
+	 * 
+	 * This is hybridQuickSort with every swap also made to the values, so nothing is allocated.
+	 * Pairs with equal keys can end up in any order.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i]. Must be at least as long as keys.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void sort(int[] keys, int[] values, IntComparator comp) {
+		hybridQuickSort(keys, values, 0, keys.length-1, comp, depthLimit(keys.length));
+	}
+	
+	
+	/**
+	 * Sorts an array of integers, moving each value to the same place as its key, keeping equal keys in their original order.
+	 * 
+	 * The order is found by stableArgsort, then both arrays are rearranged into that order in place.
+	 * So the only array allocated is the array of indexes.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i]. Must be at least as long as keys.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void stableSort(int[] keys, int[] values, IntComparator comp) {
+		int[] order = stableArgsort(keys, comp);
+		// follow each cycle of the permutation, moving every item in the cycle along one place.
+		// A visited index is marked by flipping its bits, so no second array is needed.
+		for (int start=0; start<order.length; start++) {
+			if (order[start] < 0) {
+				continue;
+			}
+			int key = keys[start];
+			int value = values[start];
+			int place = start;
+			while (order[place] != start) {
+				int next = order[place];
+				keys[place] = keys[next];
+				values[place] = values[next];
+				order[place] = ~next;
+				place = next;
+			}
+			keys[place] = key;
+			values[place] = value;
+			order[place] = ~start;
+		}
+	}
+	
+	
+	/**
+	 * Creates an array holding 0, 1, 2, ... size-1.
+	 * 
+	 * @param size Size of the array.
+	 * @return The array of indexes.
+	 */
+	private int[] identity(int size) {
+		int[] indexes = new int[size];
+		for (int i=0; i<size; i++) {
+			indexes[i] = i;
+		}
+		return indexes;
+	}
+	
+	
+	/**
+	 * Hybrid-QuickSorts a subarray of integers, moving each value to the same place as its key.
+	 * 
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i].
+	 * @param low The smallest index of the array you want to include in the partition.
+	 * @param high The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @param depth How many more levels of recursion are allowed before switching to HeapSort.
+	 */
+	protected void hybridQuickSort(int[] keys, int[] values, int low, int high, IntComparator comp, int depth) {
+		if (high - low < 1) {
+			// only one item to sort, so it is already sorted.
+			return;
+		}
+		else if (high - low < insertionSortCutoff) {
+			// insertionSortCutoff or less items to sort, so use insertion sort.
+			for (int i=low+1; i<=high; i++) {
+				int key = keys[i];
+				int value = values[i];
+				int place = i;
+				while (place > low  &&  comp.compare(key, keys[place-1]) < 0) {
+					keys[place] = keys[place-1];
+					values[place] = values[place-1];
+					place--;
+				}
+				keys[place] = key;
+				values[place] = value;
+			}
+		}
+		else if (depth == 0) {
+			// the pivots have been bad too many times, so QuickSort is heading towards O(n^2).
+			heapSort(keys, values, low, high, comp);
+		}
+		else {
+			// split into two parts,  mid = index of boundary
+			int mid = partition(keys, values, low, high, comp);
+			
+			// mid is already in the correct position, so do not try to sort it again
+			hybridQuickSort(keys, values, low, mid-1, comp, depth-1);
+			hybridQuickSort(keys, values, mid+1, high, comp, depth-1);
+		}
 	}
 	
+	
 	/**
-	 * QuickSorts an array or subarray of integers.
+	 * Partitions the keys for quicksort, the same as partition, and moves the values with them.
 	 * 
-	 * QuickSort treats the first item as the pivot. 
-	 * It places all numbers smaller than the pivot just to the right of the pivot.
-	 * All of the numbers larger than the pivot will be to the right of all of these.
-	 * The pivot then gets switched with the rightmost element that is less than it.
-	 * The sublists to the left and right of the pivot are then solved using quicksort.
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i].
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The final index of the pivot.
+	 */
+	protected int partition(int[] keys, int[] values, int min, int max, IntComparator comp){
+		int pivotIndex = choosePivot(keys, min, max, comp);
+		swap(keys, min, pivotIndex);
+		swap(values, min, pivotIndex);
+		int pivot = keys[min];
+		int scan = min+1;
+		int mark = scan;
+		while(scan <= max){
+			if (comp.compare(keys[scan], pivot) < 0){
+				swap(keys, scan, mark);
+				swap(values, scan, mark);
+				mark++;
+			}
+			scan++;
+		}
+		mark --;
+		swap(keys, min, mark);
+		swap(values, min, mark);
+		return mark;
+	}
+	
+	
+	/**
+	 * HeapSorts a subarray of integers, moving each value to the same place as its key.
 	 * 
-	 * NOTE FOR MARKING: This has been slightly changed so now high is included instead of excluded.
+	 * @param keys The array you wish to sort.
+	 * @param values values[i] belongs to keys[i].
+	 * @param low The smallest index of the array you want to include.
+	 * @param high The largest index of the array you want to include.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void heapSort(int[] keys, int[] values, int low, int high, IntComparator comp) {
+		int size = high - low + 1;
+		for (int i=size/2 - 1; i>=0; i--) {
+			siftDown(keys, values, low, i, size, comp);
+		}
+		for (int end=size-1; end>0; end--) {
+			swap(keys, low, low+end);
+			swap(values, low, low+end);
+			siftDown(keys, values, low, 0, end, comp);
+		}
+	}
+	
+	
+	/**
+	 * Moves a key and its value down a max heap until the key is larger than both of its children.
+	 * 
+	 * @param keys Array holding the heap.
+	 * @param values values[i] belongs to keys[i].
+	 * @param offset Index of the root of the heap in the array.
+	 * @param index Position in the heap of the item to be moved.
+	 * @param size Number of items in the heap.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	private void siftDown(int[] keys, int[] values, int offset, int index, int size, IntComparator comp) {
+		int key = keys[offset+index];
+		int value = values[offset+index];
+		while (2*index + 1 < size) {
+			int child = 2*index + 1;
+			// use the larger of the two children
+			if (child+1 < size && comp.compare(keys[offset+child+1], keys[offset+child]) > 0) {
+				child++;
+			}
+			if (comp.compare(keys[offset+child], key) <= 0) {
+				break;
+			}
+			keys[offset+index] = keys[offset+child];
+			values[offset+index] = values[offset+child];
+			index = child;
+		}
+		keys[offset+index] = key;
+		values[offset+index] = value;
+	}
+	
+	
+	/**
+	 * QuickSorts an array of integers using every core.
+	 * 
+	 * Once the array is partitioned, the two sides of the pivot are sorted in parallel as ForkJoin tasks.
+	 * Subarrays smaller than parallelGranularity are QuickSorted sequentially.
 	 * 
 	 * @param data The array you wish to sort.
-	 * @param low The smallest index of the array you want to include in the partition.
-	 * @param high The largest index of the array you want to include in the partition.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	private void quickSort(int[] data, int low, int high, Comparator<Integer> comp){
-		if (high - low < 1) { 
-			// only one item to sort, so it is already sorted. 
+	public void parallelQuickSort(int[] data, IntComparator comp){
+		parallelQuickSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * QuickSorts a subarray of integers using every core.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void parallelQuickSort(int[] data, int low, int high, IntComparator comp){
+		pool.invoke(new ParallelQuickSortTask(this, data, low, high, comp, parallelGranularity, false, depthLimit(high - low + 1)));
+	}
+	
+	
+	/**
+	 * Hybrid-QuickSorts an array of integers using every core.
+	 * 
+	 * Once the array is partitioned, the two sides of the pivot are sorted in parallel as ForkJoin tasks.
+	 * Subarrays smaller than parallelGranularity are Hybrid-QuickSorted sequentially.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void parallelHybridQuickSort(int[] data, IntComparator comp){
+		parallelHybridQuickSort(data, 0, data.length-1, comp);
+	}
+	
+	
+	/**
+	 * Hybrid-QuickSorts a subarray of integers using every core.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void parallelHybridQuickSort(int[] data, int low, int high, IntComparator comp){
+		pool.invoke(new ParallelQuickSortTask(this, data, low, high, comp, parallelGranularity, true, depthLimit(high - low + 1)));
+	}
+	
+	
+	/**
+	 * Sorts every array in a batch of small arrays, spreading the arrays across the pool.
+	 * 
+	 * Each array is sorted on one thread, with the algorithm that suits its length (see sortSmall).
+	 * The batch is split into tasks of about parallelGranularity items, and idle threads steal tasks from busy ones.
+	 * 
+	 * @param batch The arrays you wish to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void sortAll(int[][] batch, IntComparator comp) {
+		if (batch.length == 0) {
 			return;
 		}
-		else {     
-			// split into two parts,  mid = index of boundary
-			int mid = partition(data, low, high, comp);
+		long items = 0;
+		for (int[] data : batch) {
+			items += data.length;
+		}
+		pool.invoke(new BatchSortTask(this, batch, null, null, 0, batch.length-1, comp, arraysPerTask(batch.length, items)));
+	}
+	
+	
+	/**
+	 * Sorts every array in a flat buffer of small arrays, spreading the arrays across the pool.
+	 * 
+	 * Array i is data[offsets[i]..offsets[i+1]-1], so offsets holds one more entry than there are arrays.
+	 * Keeping the arrays in one buffer saves an object header and a pointer per array, and keeps neighbouring arrays next to each other in memory.
+	 * 
+	 * @param data The buffer holding the arrays you wish to sort, one after another.
+	 * @param offsets The index each array starts at, followed by the index after the last array.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void sortAll(int[] data, int[] offsets, IntComparator comp) {
+		int arrays = offsets.length - 1;
+		if (arrays < 1) {
+			return;
+		}
+		long items = offsets[arrays] - offsets[0];
+		pool.invoke(new BatchSortTask(this, null, data, offsets, 0, arrays-1, comp, arraysPerTask(arrays, items)));
+	}
+	
+	
+	/**
+	 * @param arrays The number of arrays in a batch.
+	 * @param items The number of items in all of them.
+	 * @return The number of arrays each task of the batch should hold, so it holds about parallelGranularity items.
+	 */
+	private int arraysPerTask(int arrays, long items) {
+		long averageLength = Math.max(1, items / arrays);
+		return (int)Math.max(1, parallelGranularity / averageLength);
+	}
+	
+	
+	/**
+	 * Sorts one small array of a batch with the algorithm that suits its length.
+	 * 
+	 * For the natural orderings, arrays of up to SortingNetwork.MAX_SIZE items use a sorting network, which does not branch on the data.
+	 * Anything else is Hybrid-QuickSorted, which insertion sorts arrays of insertionSortCutoff items or fewer.
+	 * None of these allocate, so the threads of the pool need no scratch space.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param low The smallest index of the array you want to sort.
+	 * @param high The largest index of the array you want to sort.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	protected void sortSmall(int[] data, int low, int high, IntComparator comp) {
+		boolean natural = comp instanceof LessThanIntComparator || comp instanceof GreaterThanIntComparator;
+		if (natural && high - low < SortingNetwork.MAX_SIZE) {
+			SortingNetwork.sort(data, low, high, comp);
+		}
+		else {
+			hybridQuickSort(data, low, high, comp);
+		}
+	}
+	
+	
+	/**
+	 * Finds the item that would be at index k if the array was sorted, without sorting it (introselect).
+	 * 
+	 * Afterwards data[k] holds that item, every item before it is no greater, and every item after it is no less.
+	 * The array is three way partitioned like QuickSort, but only the part holding index k is partitioned again,
+	 * so it takes linear time on average. If two partitions in a row fail to halve the part, the pivots are
+	 * chosen by median of medians from then on, so it never takes more than linear time.
+	 * 
+	 * @param data The array you wish to select from.
+	 * @param k The index of the item you want, e.g. data.length/2 for the median.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The item at index k.
+	 */
+	public int select(int[] data, int k, IntComparator comp) {
+		if (k < 0 || k >= data.length) {
+			throw new IllegalArgumentException("k must be an index of the array, not " + k);
+		}
+		select(data, 0, data.length-1, k, comp);
+		return data[k];
+	}
+	
+	
+	/**
+	 * Moves the item that would be at index k if the subarray was sorted to index k, without sorting the subarray.
+	 * 
+	 * @param data The array you wish to select from.
+	 * @param low The smallest index of the subarray.
+	 * @param high The largest index of the subarray.
+	 * @param k The index of the item you want, from low to high.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	protected void select(int[] data, int low, int high, int k, IntComparator comp) {
+		boolean medianOfMedians = false;
+		int checkedSize = high - low + 1;
+		int partitions = 0;
+		while (high - low >= insertionSortCutoff) {
+			int pivot = medianOfMedians ? data[medianOfMedians(data, low, high, comp)] : data[choosePivot(data, low, high, comp)];
+			long bounds = threeWayPartition(data, low, high, pivot, comp);
+			int lessEnd = (int)(bounds >>> 32);
+			int greaterStart = (int)bounds;
+			if (k <= lessEnd) {
+				high = lessEnd;
+			}
+			else if (k >= greaterStart) {
+				low = greaterStart;
+			}
+			else {
+				// k is among the items equal to the pivot, which are already in place
+				return;
+			}
 			
-			// mid is already in the correct position, so do not try to sort it again
-			quickSort(data, low, mid-1, comp);
-			quickSort(data, mid+1, high, comp);
+			partitions++;
+			if (partitions % 2 == 0) {
+				// two partitions should have at least halved the part left, or the pivots are bad
+				if (high - low + 1 > checkedSize/2) {
+					medianOfMedians = true;
+				}
+				checkedSize = high - low + 1;
+			}
+		}
+		insertionSort(data, low, high, comp);
+	}
+	
+	
+	/**
+	 * Finds a pivot that is guaranteed to have at least 30% of the subarray on each side of it (median of medians).
+	 * 
+	 * The subarray is split into groups of five, the median of each group is moved to the front,
+	 * and the median of those medians is selected.
+	 * 
+	 * @param data The array holding the subarray.
+	 * @param low The smallest index of the subarray.
+	 * @param high The largest index of the subarray.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return Index of the pivot.
+	 */
+	private int medianOfMedians(int[] data, int low, int high, IntComparator comp) {
+		int groups = 0;
+		for (int start=low; start<=high; start+=5) {
+			int end = Math.min(start + 4, high);
+			insertionSort(data, start, end, comp);
+			swap(data, low + groups, start + (end - start)/2);
+			groups++;
+		}
+		int middle = low + (groups - 1)/2;
+		select(data, low, low + groups - 1, middle, comp);
+		return middle;
+	}
+	
+	
+	/**
+	 * Sorts the first k items of the sorted order of an array into its first k indexes, without sorting the rest.
+	 * 
+	 * The item at index k-1 is selected first, which leaves the k-1 smaller items before it, and then only those are sorted,
+	 * so it takes O(n + k log k) time instead of O(n log n). The order of the items after index k-1 is undefined.
+	 * 
+	 * @param data The array you wish to partially sort.
+	 * @param k The number of items you want sorted at the start of the array.
+	 * @param comp Comparator for the ordering you wish to use.
+	 */
+	public void partialSort(int[] data, int k, IntComparator comp) {
+		k = Math.min(k, data.length);
+		if (k <= 0) {
+			return;
 		}
+		select(data, 0, data.length-1, k-1, comp);
+		hybridQuickSort(data, 0, k-2, comp);
+	}
+	
+	
+	/**
+	 * Finds the first k items of the sorted order of an array, without changing the array.
+	 * 
+	 * The items are streamed through a TopK heap of k items, so only O(k) memory is used. Use TopK directly
+	 * for input that does not fit in an array, or that arrives a piece at a time.
+	 * 
+	 * @param data The array you wish to take the items from. It is not changed.
+	 * @param k The number of items you want.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The first min(k, data.length) items, sorted.
+	 */
+	public int[] topK(int[] data, int k, IntComparator comp) {
+		TopK topK = new TopK(Math.max(0, Math.min(k, data.length)), comp);
+		topK.addAll(data, 0, data.length-1);
+		return topK.toSortedArray();
 	}
 	
 	
 	/**
 	 * Partitions the data for quicksort.
 	 * 
-	 * The first value of the subarray given by min and max is the pivot.
+	 * The pivot is chosen by the pivot strategy and moved to the first position of the subarray given by min and max.
 	 * Partitions the data so all of the values that are less than the pivot will be to the left of the pivot 
 	 * and those greater than will be to the right.
 	 * 
 	 * NOTE FOR MARKING: This has been slightly changed so now max is included instead of excluded.
 	 * 
+	 * If the partition scheme is Block, blockPartition does the work instead, giving the same result without the unpredictable branch.
+	 * 
 	 * @param data The array you wish to sort.
 	 * @param min The smallest index of the array you want to include in the partition.
 	 * @param max The largest index of the array you want to include in the partition.
 	 * @param comp Comparator for the ordering you wish to use.
 	 */
-	private int partition(int[] data, int min, int max, Comparator<Integer> comp){
-		int pivot = data[min];  // Place to improve efficiency later.
+	protected int partition(int[] data, int min, int max, IntComparator comp){
+		if (partitionScheme == PartitionScheme.Block) {
+			return blockPartition(data, min, max, comp);
+		}
+		swap(data, min, choosePivot(data, min, max, comp));
+		int pivot = data[min];
 		int scan = min+1;
 		int mark = scan;
 		while(scan <= max){
@@ -410,6 +1821,195 @@ public class TestingRig {
 	}
 	
 	
+	/**
+	 * Partitions the data for quicksort in blocks, without branching on the comparisons (BlockQuicksort, Edelkamp and Weiss).
+	 * 
+	 * The Lomuto partition branches on every comparison, and on random data that branch is mispredicted half the time.
+	 * Here a block of PARTITION_BLOCK items is scanned from each end, and the offsets of the items on the wrong side are written down
+	 * by adding the comparison's sign bit to a count instead of branching on it. The misplaced items are then swapped in pairs.
+	 * The last 2 * PARTITION_BLOCK items or fewer in the middle are partitioned like partition.
+	 * 
+	 * Afterwards the items less than the pivot are left of it and the rest are right of it, as with partition.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The index the pivot ends up at.
+	 */
+	protected int blockPartition(int[] data, int min, int max, IntComparator comp){
+		swap(data, min, choosePivot(data, min, max, comp));
+		int pivot = data[min];
+		// data[min+1..left-1] < pivot, data[right+1..max] >= pivot, and data[left..right] is still to be partitioned
+		int left = min+1;
+		int right = max;
+		// the offsets of the misplaced items in the left block, then in the right block. Small subarrays never need them.
+		int[] offsets = right - left + 1 > 2*PARTITION_BLOCK ? PARTITION_OFFSETS.get() : null;
+		int startLeft = 0;
+		int countLeft = 0;
+		int startRight = 0;
+		int countRight = 0;
+		while (right - left + 1 > 2*PARTITION_BLOCK) {
+			if (countLeft == 0) {
+				// write every offset, but only move on past the ones whose item is not less than the pivot
+				startLeft = 0;
+				for (int i=0; i<PARTITION_BLOCK; i++) {
+					offsets[countLeft] = i;
+					countLeft += ~comp.compare(data[left+i], pivot) >>> 31;
+				}
+			}
+			if (countRight == 0) {
+				startRight = 0;
+				for (int i=0; i<PARTITION_BLOCK; i++) {
+					offsets[PARTITION_BLOCK + countRight] = i;
+					countRight += comp.compare(data[right-i], pivot) >>> 31;
+				}
+			}
+			// swap as many pairs of misplaced items as both blocks have
+			int count = Math.min(countLeft, countRight);
+			for (int i=0; i<count; i++) {
+				swap(data, left + offsets[startLeft+i], right - offsets[PARTITION_BLOCK + startRight+i]);
+			}
+			countLeft -= count;
+			countRight -= count;
+			startLeft += count;
+			startRight += count;
+			// a block with nothing misplaced left in it is done
+			if (countLeft == 0) {
+				left += PARTITION_BLOCK;
+			}
+			if (countRight == 0) {
+				right -= PARTITION_BLOCK;
+			}
+		}
+		
+		// partition what is left in the middle, which includes any block that still has misplaced items
+		int mark = left;
+		for (int scan=left; scan<=right; scan++) {
+			if (comp.compare(data[scan], pivot) < 0) {
+				swap(data, scan, mark);
+				mark++;
+			}
+		}
+		mark--;
+		swap(data, min, mark);
+		return mark;
+	}
+	
+	
+	/**
+	 * Partitions the data into three parts for quicksort (the Dutch national flag problem).
+	 * 
+	 * The pivot is chosen by the pivot strategy.
+	 * Afterwards the items less than the pivot are at the start of the subarray, 
+	 * the items equal to the pivot are in the middle, and the items greater than the pivot are at the end.
+	 * Both boundaries are needed, so they are packed into a long to avoid allocating an array for every partition.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The index of the last item less than the pivot in the upper 32 bits,
+	 *         and the index of the first item greater than the pivot in the lower 32 bits.
+	 */
+	protected long threeWayPartition(int[] data, int min, int max, IntComparator comp){
+		return threeWayPartition(data, min, max, data[choosePivot(data, min, max, comp)], comp);
+	}
+	
+	
+	/**
+	 * Partitions the data into three parts around a given pivot value.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @param pivot The value to partition around. It must be one of the items in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The index of the last item less than the pivot in the upper 32 bits,
+	 *         and the index of the first item greater than the pivot in the lower 32 bits.
+	 */
+	private long threeWayPartition(int[] data, int min, int max, int pivot, IntComparator comp){
+		// data[min..less-1] < pivot, data[less..scan-1] == pivot, data[greater+1..max] > pivot
+		int less = min;
+		int scan = min;
+		int greater = max;
+		while (scan <= greater) {
+			int compared = comp.compare(data[scan], pivot);
+			if (compared < 0) {
+				swap(data, less, scan);
+				less++;
+				scan++;
+			}
+			else if (compared > 0) {
+				// the item swapped in from the end has not been looked at yet, so do not move scan
+				swap(data, scan, greater);
+				greater--;
+			}
+			else {
+				scan++;
+			}
+		}
+		return (((long)(less-1)) << 32) | ((greater+1) & 0xFFFFFFFFL);
+	}
+	
+	
+	/**
+	 * Chooses the index of the pivot for partition.
+	 * 
+	 * @param data The array you wish to sort.
+	 * @param min The smallest index of the array you want to include in the partition.
+	 * @param max The largest index of the array you want to include in the partition.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return Index of the pivot.
+	 */
+	protected int choosePivot(int[] data, int min, int max, IntComparator comp) {
+		switch (pivotStrategy) {
+		case MedianOfThree:
+			return medianOfThree(data, min, min + (max-min)/2, max, comp);
+		case Ninther:
+			if (max - min < 40) {
+				// too few items for the ninther to be worth the extra comparisons
+				return medianOfThree(data, min, min + (max-min)/2, max, comp);
+			}
+			// median of the medians of three evenly spaced groups of three
+			int step = (max - min)/8;
+			int mid = min + (max-min)/2;
+			int first = medianOfThree(data, min, min + step, min + 2*step, comp);
+			int second = medianOfThree(data, mid - step, mid, mid + step, comp);
+			int third = medianOfThree(data, max - 2*step, max - step, max, comp);
+			return medianOfThree(data, first, second, third, comp);
+		case Random:
+			return min + ThreadLocalRandom.current().nextInt(max - min + 1);
+		default:
+			return min;
+		}
+	}
+	
+	
+	/**
+	 * Finds which of three indexes holds the median of their values.
+	 * 
+	 * @param data Array of integers.
+	 * @param a The first index.
+	 * @param b The second index.
+	 * @param c The third index.
+	 * @param comp Comparator for the ordering you wish to use.
+	 * @return The index holding the median value.
+	 */
+	private int medianOfThree(int[] data, int a, int b, int c, IntComparator comp) {
+		if (comp.compare(data[a], data[b]) < 0) {
+			if (comp.compare(data[b], data[c]) < 0) {
+				return b;
+			}
+			return comp.compare(data[a], data[c]) < 0 ? c : a;
+		}
+		if (comp.compare(data[a], data[c]) < 0) {
+			return a;
+		}
+		return comp.compare(data[b], data[c]) < 0 ? c : b;
+	}
+	
+	
 	/**
 	 * Checks if the array is sorted.
 	 * 
@@ -419,7 +2019,7 @@ public class TestingRig {
 	 * @param comp Comparator for the ordering you wish to use.
 	 * @return True if the array is sorted, False if it is not.
 	 */
-	public boolean isSorted(int[] data, Comparator<Integer> comp) {
+	public boolean isSorted(int[] data, IntComparator comp) {
 		for (int i=1; i<data.length; i++) {
 			if (comp.compare(data[i], data[i-1]) < 0) {
 				return false;
@@ -481,6 +2081,65 @@ public class TestingRig {
 		main.testSort(sizes, 100000, 1000, "tests/vs hybridsort spread/", " - large range", Algorithm.HybridQuickSort);
 		
 		
+		// compare sorting each type of key
+//		int[] sizes = {1000, 10000, 100000, 1000000};
+//		main.getGenerator().setSpecialDoubles(0.01);
+//		for (KeyType keyType : KeyType.values()) {
+//			main.testSort(sizes, Integer.MAX_VALUE - 1, 10, "tests/key types/", "", Algorithm.HybridQuickSort, Distribution.Uniform, keyType);
+//		}
+
+
+		// count the operations behind the times, to see why InsertionSort beats QuickSort on small arrays
+//		int[] sizes = {10, 20, 30, 40, 50, 60, 70, 80, 90};
+//		main.setCountOperations(true);
+//		main.testSort(sizes, 100000, 1000, "tests/operation counts/", "", Algorithm.InsertionSort);
+//		main.testSort(sizes, 100000, 1000, "tests/operation counts/", "", Algorithm.QuickSort);
+//		main.testSort(sizes, 100000, 1000, "tests/operation counts/", "", Algorithm.HybridQuickSort);
+
+
+		// compare the algorithms on mostly sorted input, e.g. appended batches
+//		int[] sizes = {1000, 10000, 100000, 1000000};
+//		for (Distribution distribution : new Distribution[] {Distribution.Sorted, Distribution.NearlySorted, Distribution.Sawtooth}) {
+//			main.testSort(sizes, 1000000, 20, "tests/nearly sorted/", "-" + distribution, main.getRegistry().get(Algorithm.NaturalMergeSort), distribution);
+//			main.testSort(sizes, 1000000, 20, "tests/nearly sorted/", "-" + distribution, main.getRegistry().get(Algorithm.HybridQuickSort), distribution);
+//		}
+
+
+		// compare the stable sorts on time and on the memory each trial allocates, which is the extra heap the sort needs
+//		int[] sizes = {1000, 10000, 100000, 1000000};
+//		main.testSort(sizes, 1000000, 20, "tests/stable/", "", Algorithm.MergeSort);
+//		main.testSort(sizes, 1000000, 20, "tests/stable/", "", Algorithm.InPlaceMergeSort);
+//		main.setInPlaceMergeBufferSize(512);
+//		main.testSort(sizes, 1000000, 20, "tests/stable/", "-buffer 512", Algorithm.InPlaceMergeSort);
+
+
+		// compare pdqsort with hybridQuickSort on every input shape
+//		int[] sizes = {1000, 10000, 100000, 1000000};
+//		for (Distribution distribution : Distribution.values()) {
+//			main.testSort(sizes, 1000000, 20, "tests/pdqsort/", "-" + distribution, main.getRegistry().get(Algorithm.PdqSort), distribution);
+//			main.testSort(sizes, 1000000, 20, "tests/pdqsort/", "-" + distribution, main.getRegistry().get(Algorithm.HybridQuickSort), distribution);
+//		}
+
+
+		// compare the block partition with Lomuto on random and low-entropy input. Divide the times by the size for the time per item.
+//		int[] sizes = {10000, 100000, 1000000};
+//		for (PartitionScheme scheme : new PartitionScheme[] {PartitionScheme.Lomuto, PartitionScheme.Block}) {
+//			main.setPartitionScheme(scheme);
+//			for (Distribution distribution : new Distribution[] {Distribution.Uniform, Distribution.FewUnique, Distribution.Zipf}) {
+//				main.testSort(sizes, 1000000, 20, "tests/partition/", "-" + distribution + "-" + scheme, main.getRegistry().get(Algorithm.QuickSort), distribution);
+//				main.testSort(sizes, 1000000, 20, "tests/partition/", "-" + distribution + "-" + scheme, main.getRegistry().get(Algorithm.HybridQuickSort), distribution);
+//			}
+//		}
+
+
+		// gate a change to partition or hybridQuickSort on its measured time, with the same seed before and after the change.
+		// Then run BaselineStore save on the trials file before the change, and BaselineStore compare on it after.
+//		int[] sizes = {1000, 10000, 100000};
+//		main.setSeed(42);
+//		main.setExcludeCollectedTrials(true);
+//		main.testSort(sizes, 100000, 50, "tests/gate/", "", Algorithm.HybridQuickSort);
+
+
 		// compare the time each algorithm takes (smallest values reverse order)
 //		int[] sizes = {10, 20, 30, 40, 50, 60, 70, 80, 90};
 //		main.testQuickSort(sizes, 100000, 100000, "tests/smallest values/", "-smallest values v2", Algorithm.QuickSort);
@@ -0,0 +1,27 @@
+
+/**
+ * QuickSorts a subarray of integers using three way partitioning.
+ */
+public class ThreeWayQuickSortAlgorithm extends RigSortAlgorithm {
+
+	@Override
+	public String name() {
+		return "ThreeWayQuickSort";
+	}
+
+	@Override
+	public void sort(int[] data, int low, int high, IntComparator comp) {
+		rig.threeWayQuickSort(data, low, high, comp, rig.depthLimit(high - low + 1));
+	}
+
+	@Override
+	public boolean isStable() {
+		return false;
+	}
+
+	@Override
+	public AuxiliaryMemory auxiliaryMemory() {
+		return AuxiliaryMemory.Logarithmic;
+	}
+
+}
@@ -0,0 +1,9 @@
+
+/**
+ * A record keyed by a field, used to test RecordSort.
+ * 
+ * @param timestamp The key the records are sorted by.
+ * @param value The payload carried with the key.
+ */
+public record TimestampedValue(long timestamp, double value) {
+}
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+
+/**
+ * Keeps the k first items in an ordering out of a stream of integers of any length.
+ * 
+ * The items kept are held in a heap with the last of them at the root, so each new item is compared with the root
+ * and only replaces it if it comes before it. That takes O(log k) time per item and O(k) memory, however many items are added,
+ * so it works on input that is too large to hold, or that never ends.
+ */
+public class TopK {
+	// the items kept, as a heap whose root comes last in the ordering
+	private int[] heap;
+	// number of items in the heap
+	private int size;
+	private IntComparator comp;
+
+	/**
+	 * @param k The number of items to keep.
+	 * @param comp Comparator for the ordering. The items that come first in it are kept.
+	 */
+	public TopK(int k, IntComparator comp) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k cannot be negative, not " + k);
+		}
+		this.heap = new int[k];
+		this.comp = comp;
+	}
+
+
+	/**
+	 * Adds an item, keeping it if it is one of the k first so far.
+	 * 
+	 * @param item The item.
+	 */
+	public void add(int item) {
+		if (size < heap.length) {
+			// still filling up, so keep everything, moving the item up past any parent that comes before it
+			int index = size++;
+			while (index > 0) {
+				int parent = (index - 1) / 2;
+				if (comp.compare(heap[parent], item) >= 0) {
+					break;
+				}
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			heap[index] = item;
+		}
+		else if (size > 0 && comp.compare(item, heap[0]) < 0) {
+			// the item comes before the last item kept, so it replaces it
+			siftDown(item);
+		}
+	}
+
+
+	/**
+	 * Adds every item of a subarray.
+	 * 
+	 * @param data Array holding the items.
+	 * @param low The smallest index of the items to add.
+	 * @param high The largest index of the items to add.
+	 */
+	public void addAll(int[] data, int low, int high) {
+		for (int i=low; i<=high; i++) {
+			add(data[i]);
+		}
+	}
+
+
+	/**
+	 * @return The number of items kept, which is k once k items have been added.
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * @return The items kept, sorted. The heap is not changed, so more items can still be added.
+	 */
+	public int[] toSortedArray() {
+		int[] sorted = Arrays.copyOf(heap, size);
+		// the copy is already a heap with the last item at the root, so only the second half of HeapSort is needed
+		for (int end=size-1; end>0; end--) {
+			int last = sorted[end];
+			sorted[end] = sorted[0];
+			int index = 0;
+			while (2*index + 1 < end) {
+				int child = 2*index + 1;
+				if (child+1 < end && comp.compare(sorted[child+1], sorted[child]) > 0) {
+					child++;
+				}
+				if (comp.compare(sorted[child], last) <= 0) {
+					break;
+				}
+				sorted[index] = sorted[child];
+				index = child;
+			}
+			sorted[index] = last;
+		}
+		return sorted;
+	}
+
+
+	/**
+	 * Replaces the root of the heap with an item, and moves the item down until it comes after both of its children.
+	 * 
+	 * @param item The item to put in the heap.
+	 */
+	private void siftDown(int item) {
+		int index = 0;
+		while (2*index + 1 < size) {
+			int child = 2*index + 1;
+			// use the child that comes later in the ordering
+			if (child+1 < size && comp.compare(heap[child+1], heap[child]) > 0) {
+				child++;
+			}
+			if (comp.compare(heap[child], item) <= 0) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = item;
+	}
+}
@@ -0,0 +1,17 @@
+
+/**
+ * The memory one trial allocated, and the garbage collections that ran during it, measured by MemoryMonitor.
+ * 
+ * @param allocatedBytes Bytes allocated by the thread that ran the trial, or -1 if the JVM cannot measure it.
+ * @param collections Number of garbage collections that ran during the trial.
+ * @param collectionMs Time those collections took, in milliseconds.
+ */
+public record TrialMemory(long allocatedBytes, long collections, long collectionMs) {
+	
+	/**
+	 * @return True if a garbage collection ran during the trial, so its time may include a pause.
+	 */
+	public boolean collected() {
+		return collections > 0;
+	}
+}